@@ -11,7 +11,15 @@ package fr.cea.modane.headless;
 
 import java.io.File;
 import java.lang.ProcessBuilder.Redirect;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.eclipse.emf.common.util.URI;
 import org.eclipse.equinox.app.IApplication;
@@ -19,6 +27,10 @@ import org.eclipse.equinox.app.IApplicationContext;
 import org.eclipse.uml2.uml.Model;
 import org.eclipse.xtext.xbase.lib.Procedures.Procedure2;
 
+import com.google.inject.Injector;
+
+import fr.cea.modane.cycles.ElementDependencyGraph;
+import fr.cea.modane.cycles.ElementDependencyGraph.ExportFormat;
 import fr.cea.modane.generator.ModaneGeneratorMessageDispatcher;
 import fr.cea.modane.uml.UmlToCpp;
 
@@ -37,6 +49,17 @@ public class Application implements IApplication
 	String[] umlFiles = null;
 	String pkgToGenerate = null;
 	boolean writeCMakesFiles = false;
+	boolean incremental = false;
+	int jobs = 1;
+	int threads = 1;
+	int writerThreads = 0;
+	boolean server = false;
+	int port = 0;
+	File umlCacheDir = null;
+	ExportFormat dependencyGraphFormat = null;
+
+	/** Output of the file processed by the current thread, when files are processed concurrently */
+	final ThreadLocal<StringBuilder> fileLog = new ThreadLocal<>();
 
 	/**
 	 * Always return Application.EXIT_OK to avoid an unexpected message dialog window.
@@ -49,6 +72,12 @@ public class Application implements IApplication
 		final String[] appArgs = (String[])args.get("application.args");
 		if (parseArgs(appArgs))
 		{
+			if (server)
+			{
+				new GenerationServer(port, jobs, threads, writerThreads, umlCacheDir).run();
+				return Application.EXIT_OK;
+			}
+
 			// Arguments are checked
 			if (umlDir != null && mdzipFiles != null)
 			{
@@ -66,70 +95,266 @@ public class Application implements IApplication
 				System.out.println("      Destination dir : " + umlDir);
 
 				umlFiles = new String[mdzipFiles.length];
+				final List<Callable<Boolean>> conversions = new ArrayList<>();
 				for (int i=0 ; i<mdzipFiles.length ; ++i)
 				{
 					final String mdzipFile = mdzipFiles[i];
-					System.out.println("      Mdzip file      : " + mdzipFile);
-					final ProcessBuilder pb = new ProcessBuilder(emf2xmiDir, "project_file=" + mdzipFile, "destination_dir=" + umlDir);
-					pb.redirectOutput(Redirect.INHERIT);
-					pb.redirectError(Redirect.INHERIT);
-					final Process p = pb.start();
-					p.waitFor();
-					final int exitValue = p.exitValue();
-					System.out.println("        Exit value : " + exitValue);
-
-					if (exitValue != 0)
-					{
-						System.out.println("**    UML generation failed for " + mdzipFile + ". Exiting...");
-						return Application.EXIT_OK;
-					}
-
-					System.out.println("      UML generation ok for " + mdzipFile);
+					conversions.add(() -> convert(emf2xmiDir, mdzipFile));
 					File f = new File(mdzipFile);
 					umlFiles[i] = umlDir + '/' + f.getName().replace(".mdzip", ".uml");
 				}
+				if (!runAll(conversions))
+				{
+					System.out.println("**    UML generation failed. Exiting...");
+					return Application.EXIT_OK;
+				}
 				System.out.println(">>>>> MDZIP --> EMF UML finished");
 			}
 
 			if (umlFiles != null)
 			{
 				// Step 2: C++ generation from a ".uml" file
-				for (int i=0 ; i<umlFiles.length ; ++i)
-				{
-					final String umlFile = umlFiles[i];
-					System.out.println(">>>>> Loading EMF UML resource: " + umlFile);
-					final UmlToCpp umlToCpp = UmlToCpp.createInstance();
-					final Procedure2<ModaneGeneratorMessageDispatcher.MessageType, String> printConsole = (ModaneGeneratorMessageDispatcher.MessageType type, String msg) -> { System.out.println(msg); };
-					umlToCpp.getMessageDispatcher().getTraceListeners().add(printConsole);
-					final Model model = umlToCpp.readModel(URI.createFileURI(umlFile));
-					System.out.println(">>>>> EMF UML resource loaded: " + umlFile);
-
-					System.out.println(">>>>> Starting generation process for: " + umlFile);
-					if (pkgToGenerate == null)
-						umlToCpp.generate(model, cppDir, "", "", writeCMakesFiles, false);
-					else
-						umlToCpp.generate(model, cppDir, "", pkgToGenerate, writeCMakesFiles, false);
-
-					System.out.println(">>>>> Generation process ended successfully for: " + umlFile);
-				}
+				// The injector is shared: EMF registration is done once for all files
+				final Injector injector = UmlToCpp.createInjector();
+				final Procedure2<ModaneGeneratorMessageDispatcher.MessageType, String> printConsole = (ModaneGeneratorMessageDispatcher.MessageType type, String msg) -> { println(msg); };
+				injector.getInstance(ModaneGeneratorMessageDispatcher.class).getTraceListeners().add(printConsole);
+
+				generateAll(injector);
 			}
 		}
 
 		return Application.EXIT_OK;
 	}
 
+	/** Step 1 for one file: returns false if the emf2xmi process failed */
+	private boolean convert(String emf2xmiDir, String mdzipFile) throws Exception
+	{
+		println("      Mdzip file      : " + mdzipFile);
+		final ProcessBuilder pb = new ProcessBuilder(emf2xmiDir, "project_file=" + mdzipFile, "destination_dir=" + umlDir);
+		File processLog = null;
+		if (jobs > 1)
+		{
+			// concurrent processes: output kept in a log file, printed when the process ends
+			processLog = File.createTempFile("emf2xmi", ".log");
+			pb.redirectErrorStream(true);
+			pb.redirectOutput(processLog);
+		}
+		else
+		{
+			pb.redirectOutput(Redirect.INHERIT);
+			pb.redirectError(Redirect.INHERIT);
+		}
+		final Process p = pb.start();
+		p.waitFor();
+		final int exitValue = p.exitValue();
+		if (processLog != null)
+		{
+			for (String line : Files.readAllLines(processLog.toPath(), Charset.defaultCharset()))
+				println(line);
+			processLog.delete();
+		}
+		println("        Exit value : " + exitValue);
+
+		if (exitValue != 0)
+		{
+			println("**    UML generation failed for " + mdzipFile);
+			return false;
+		}
+
+		println("      UML generation ok for " + mdzipFile);
+		return true;
+	}
+
+	/**
+	 * Step 2 for all files. All files are generated into the same cppDir, which holds files
+	 * shared by the generations (generation manifest, global xsd, CMake files): generations
+	 * are run one at a time, in the order of the files, so that the output does not depend
+	 * on the scheduling. With 'jobs' threads, the UML models are loaded concurrently and
+	 * each file is generated as soon as it and the previous ones are loaded.
+	 * Returns true if all files were generated.
+	 */
+	private boolean generateAll(Injector injector) throws Exception
+	{
+		final List<UmlToCpp> instances = new ArrayList<>();
+		for (int i=0 ; i<umlFiles.length ; ++i)
+			instances.add(createUmlToCpp(injector));
+
+		if (jobs <= 1 || umlFiles.length <= 1)
+		{
+			for (int i=0 ; i<umlFiles.length ; ++i)
+				if (!generate(instances.get(i), load(instances.get(i), umlFiles[i]), umlFiles[i])) return false;
+			return true;
+		}
+
+		final ExecutorService executor = Executors.newFixedThreadPool(Math.min(jobs, umlFiles.length));
+		try
+		{
+			final List<Future<Model>> models = new ArrayList<>();
+			for (int i=0 ; i<umlFiles.length ; ++i)
+			{
+				final UmlToCpp umlToCpp = instances.get(i);
+				final String umlFile = umlFiles[i];
+				models.add(executor.submit(() -> runWithFileLog(() -> load(umlToCpp, umlFile))));
+			}
+
+			boolean ok = true;
+			for (int i=0 ; i<umlFiles.length ; ++i)
+			{
+				final UmlToCpp umlToCpp = instances.get(i);
+				final Model model = models.get(i).get();
+				final String umlFile = umlFiles[i];
+				// the model is released as soon as it is generated
+				models.set(i, null);
+				instances.set(i, null);
+				if (model == null)
+					ok = false;
+				else
+					ok &= Boolean.TRUE.equals(runWithFileLog(() -> generate(umlToCpp, model, umlFile)));
+			}
+			return ok;
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+	}
+
+	private UmlToCpp createUmlToCpp(Injector injector)
+	{
+		final UmlToCpp umlToCpp = UmlToCpp.createInstance(injector);
+		umlToCpp.setIncremental(incremental);
+		umlToCpp.setNbThreads(threads);
+		umlToCpp.setNbWriterThreads(writerThreads);
+		umlToCpp.setUmlCacheDir(umlCacheDir);
+		umlToCpp.setDependencyGraphFormat(dependencyGraphFormat);
+		return umlToCpp;
+	}
+
+	/** Step 2 for one file: loading of the UML model */
+	private Model load(UmlToCpp umlToCpp, String umlFile)
+	{
+		println(">>>>> Loading EMF UML resource: " + umlFile);
+		final Model model = umlToCpp.readModel(URI.createFileURI(umlFile));
+		println(">>>>> EMF UML resource loaded: " + umlFile);
+		return model;
+	}
+
+	/** Step 2 for one file: generation of the loaded model */
+	private boolean generate(UmlToCpp umlToCpp, Model model, String umlFile)
+	{
+		println(">>>>> Starting generation process for: " + umlFile);
+		if (pkgToGenerate == null)
+			umlToCpp.generate(model, cppDir, "", "", writeCMakesFiles, false);
+		else
+			umlToCpp.generate(model, cppDir, "", pkgToGenerate, writeCMakesFiles, false);
+
+		println(">>>>> Generation process ended successfully for: " + umlFile);
+		return true;
+	}
+
+	/**
+	 * Runs the tasks one after another, stopping at the first failure, or with 'jobs' threads.
+	 * In the latter case, the output of each task is printed as a whole when the task ends.
+	 * Returns true if all tasks succeeded.
+	 */
+	private boolean runAll(List<Callable<Boolean>> tasks) throws Exception
+	{
+		if (jobs <= 1 || tasks.size() <= 1)
+		{
+			for (Callable<Boolean> task : tasks)
+				if (!task.call()) return false;
+			return true;
+		}
+
+		final ExecutorService executor = Executors.newFixedThreadPool(Math.min(jobs, tasks.size()));
+		try
+		{
+			final List<Future<Boolean>> results = new ArrayList<>();
+			for (final Callable<Boolean> task : tasks)
+				results.add(executor.submit(() -> runWithFileLog(task)));
+
+			boolean ok = true;
+			for (Future<Boolean> result : results)
+				ok &= Boolean.TRUE.equals(result.get());
+			return ok;
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+	}
+
+	/** Returns the result of the task, null if it failed */
+	private <T> T runWithFileLog(Callable<T> task)
+	{
+		final StringBuilder log = new StringBuilder();
+		fileLog.set(log);
+		T result = null;
+		try
+		{
+			result = task.call();
+		}
+		catch (Exception e)
+		{
+			println("**    " + e.getClass().getSimpleName() + ": " + e.getMessage());
+		}
+		finally
+		{
+			fileLog.remove();
+			synchronized (System.out)
+			{
+				System.out.print(log);
+				System.out.flush();
+			}
+		}
+		return result;
+	}
+
+	/** Printed immediately or kept with the output of the current file (see runAll) */
+	private void println(String msg)
+	{
+		final StringBuilder log = fileLog.get();
+		if (log == null)
+			System.out.println(msg);
+		else
+			log.append(msg).append(System.lineSeparator());
+	}
+
 	@Override
 	public void stop()
 	{
 		// nothing to do
 	}
 
+	/** Returns the integer value of arg, -1 if arg is not an integer */
+	private static int parseCount(String arg)
+	{
+		try
+		{
+			return Integer.parseInt(arg);
+		}
+		catch (NumberFormatException e)
+		{
+			return -1;
+		}
+	}
+
 	private void printUsage()
 	{
 		System.out.println("Usage (Directories need absolute pathes and package separator is '.': A, A.B, A.B.C...):");
-		System.out.println("  Generate from a '.mdzip' model: modane --cpp-dir <AXL_AND_CPP_FILES_OUTPUT_DIR> --uml-dir <UML_FILES_OUTPUT_DIR> --mdzip <MDZIP_MODEL_FILE> [--pkg <PACKAGE_NAME_TO_GENERATE>] [--cmakes]");
-		System.out.println("  Generate from a '.uml'   model: modane --cpp-dir <AXL_AND_CPP_FILES_OUTPUT_DIR> --uml <UML_ROOT_MODEL_FILE> [--pkg <PACKAGE_NAME_TO_GENERATE>] [--cmakes]");
+		System.out.println("  Generate from a '.mdzip' model: modane --cpp-dir <AXL_AND_CPP_FILES_OUTPUT_DIR> --uml-dir <UML_FILES_OUTPUT_DIR> --mdzip <MDZIP_MODEL_FILE> [--pkg <PACKAGE_NAME_TO_GENERATE>] [--cmakes] [--incremental] [--jobs <N>] [--threads <N>] [--writer-threads <N>] [--uml-cache <DIR>] [--deps-graph <FORMAT>]");
+		System.out.println("  Generate from a '.uml'   model: modane --cpp-dir <AXL_AND_CPP_FILES_OUTPUT_DIR> --uml <UML_ROOT_MODEL_FILE> [--pkg <PACKAGE_NAME_TO_GENERATE>] [--cmakes] [--incremental] [--jobs <N>] [--threads <N>] [--writer-threads <N>] [--uml-cache <DIR>] [--deps-graph <FORMAT>]");
 		System.out.println("  Note: --mdzip and --uml options accept a list of comma separated files (no space)");
+		System.out.println("  Note: --incremental only regenerates elements changed since the last generation in the same directory");
+		System.out.println("  Note: --jobs converts and loads up to N files concurrently (default 1), the output of each file is printed when it ends; files are generated one at a time, in order");
+		System.out.println("  Note: --threads generates the elements of a model with N threads (default 1)");
+		System.out.println("  Note: --writer-threads writes the generated files with N background threads (default 0: no background writing)");
+		System.out.println("  Note: --uml-cache keeps the loaded UML models and profiles in EMF binary format in DIR, reused while their content is unchanged");
+		System.out.println("  Note: --deps-graph writes the dependency graph between elements, with its strongly connected components, layers, fan-in and fan-out, in <AXL_AND_CPP_FILES_OUTPUT_DIR>/<MODEL>.dependencies.<FORMAT> (FORMAT: graphml, dot or csv)");
+		System.out.println("  Start a generation server: modane --server [--port <PORT>] [--jobs <N>] [--threads <N>] [--writer-threads <N>] [--uml-cache <DIR>]");
+		System.out.println("  Note: the server reads '.uml' generation requests on stdin, or on the local port with the client:");
+		System.out.println("        java -cp <HEADLESS_PLUGIN_JAR> fr.cea.modane.headless.Client --port <PORT> --cpp-dir <DIR> --uml <FILE> [--pkg <PACKAGE>] [--cmakes] [--incremental]");
+		System.out.println("        the client sends the server token, written in ~/.modane-server-<PORT>.token readable by the user only");
 	}
 
 	private boolean parseArgs(String[] appArgs)
@@ -156,6 +381,86 @@ public class Application implements IApplication
 			}
 			case "--pkg": pkgToGenerate = appArgs[++i]; break;
 			case "--cmakes": writeCMakesFiles = true; break;
+			case "--incremental": incremental = true; break;
+			case "--server": server = true; break;
+			case "--uml-cache":
+			{
+				umlCacheDir = new File(appArgs[++i]);
+				if (!umlCacheDir.isDirectory() && !umlCacheDir.mkdirs())
+				{
+					System.out.println("Invalid UML cache directory: " + umlCacheDir);
+					printUsage();
+					return false;
+				}
+				break;
+			}
+			case "--port":
+			{
+				String arg = appArgs[++i];
+				try
+				{
+					port = Integer.parseInt(arg);
+				}
+				catch (NumberFormatException e)
+				{
+					port = -1;
+				}
+				if (port < 1 || port > 65535)
+				{
+					System.out.println("Invalid port: " + arg);
+					printUsage();
+					return false;
+				}
+				break;
+			}
+			case "--jobs":
+			{
+				String arg = appArgs[++i];
+				jobs = parseCount(arg);
+				if (jobs < 1)
+				{
+					System.out.println("Invalid number of jobs: " + arg);
+					printUsage();
+					return false;
+				}
+				break;
+			}
+			case "--writer-threads":
+			{
+				String arg = appArgs[++i];
+				writerThreads = parseCount(arg);
+				if (writerThreads < 0)
+				{
+					System.out.println("Invalid number of writer threads: " + arg);
+					printUsage();
+					return false;
+				}
+				break;
+			}
+			case "--deps-graph":
+			{
+				String arg = appArgs[++i];
+				dependencyGraphFormat = ElementDependencyGraph.parseFormat(arg);
+				if (dependencyGraphFormat == null)
+				{
+					System.out.println("Invalid dependency graph format: " + arg);
+					printUsage();
+					return false;
+				}
+				break;
+			}
+			case "--threads":
+			{
+				String arg = appArgs[++i];
+				threads = parseCount(arg);
+				if (threads < 1)
+				{
+					System.out.println("Invalid number of threads: " + arg);
+					printUsage();
+					return false;
+				}
+				break;
+			}
 			default:
 			{
 				System.out.println("Unknow option: " + appArgs[i]);
@@ -164,7 +469,7 @@ public class Application implements IApplication
 			}
 			}
 		}
-		valid = (dirOK(cppDir) && (filesOK(umlFiles, "uml") || (filesOK(mdzipFiles, "mdzip") && dirOK(umlDir))));
+		valid = server || (dirOK(cppDir) && (filesOK(umlFiles, "uml") || (filesOK(mdzipFiles, "mdzip") && dirOK(umlDir))));
 
 		if (!valid) printUsage();
 		return valid;
@@ -0,0 +1,76 @@
+/*******************************************************************************
+ * Copyright (c) 2022 CEA
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * Contributors: see AUTHORS file
+ *******************************************************************************/
+package fr.cea.modane.headless;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * Thin client of the generation server (see GenerationServer), without OSGi nor EMF:
+ *   java -cp fr.cea.modane.headless.jar fr.cea.modane.headless.Client --port <PORT> <GENERATION_OPTIONS>|stop
+ * The generation options are those of a '.uml' generation by the headless application.
+ * The request is preceded by the token of the server, read in the file given by getTokenFile.
+ * The exit value is 0 if the generation succeeded.
+ */
+public class Client
+{
+	/** File holding the secret token of the server listening on the port, readable by its user only */
+	public static File getTokenFile(int port)
+	{
+		return new File(System.getProperty("user.home"), ".modane-server-" + port + ".token");
+	}
+
+	public static void main(String[] args) throws IOException
+	{
+		if (args.length < 3 || !args[0].equals("--port"))
+		{
+			System.out.println("Usage: Client --port <PORT> --cpp-dir <AXL_AND_CPP_FILES_OUTPUT_DIR> --uml <UML_ROOT_MODEL_FILE> [--pkg <PACKAGE_NAME_TO_GENERATE>] [--cmakes] [--incremental]");
+			System.out.println("       Client --port <PORT> " + GenerationServer.STOP);
+			System.exit(2);
+		}
+
+		final StringBuilder request = new StringBuilder();
+		for (int i=2 ; i<args.length ; ++i)
+		{
+			if (i > 2) request.append('\t');
+			request.append(args[i]);
+		}
+
+		final int port = Integer.parseInt(args[1]);
+		final String token = new String(Files.readAllBytes(getTokenFile(port).toPath()), StandardCharsets.UTF_8).trim();
+
+		boolean ok = false;
+		try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+			 PrintWriter out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+			 BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8)))
+		{
+			out.println(token);
+			out.println(request);
+			out.flush();
+			String line;
+			while ((line = in.readLine()) != null)
+			{
+				if (line.startsWith(GenerationServer.STATUS))
+					ok = line.substring(GenerationServer.STATUS.length()).equals("ok");
+				else
+					System.out.println(line);
+			}
+		}
+		System.exit(ok ? 0 : 1);
+	}
+}
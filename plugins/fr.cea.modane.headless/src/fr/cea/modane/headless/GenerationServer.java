@@ -0,0 +1,367 @@
+/*******************************************************************************
+ * Copyright (c) 2022 CEA
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * Contributors: see AUTHORS file
+ *******************************************************************************/
+package fr.cea.modane.headless;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.uml2.uml.Model;
+import org.eclipse.xtext.xbase.lib.Procedures.Procedure2;
+
+import com.google.inject.Injector;
+
+import fr.cea.modane.generator.ModaneGeneratorMessageDispatcher;
+import fr.cea.modane.uml.UmlToCpp;
+
+/**
+ * Generation server started by the '--server' option of the headless application.
+ * The injector is created once and the UML models are kept in memory while their files are
+ * unchanged, so a request only pays for the generation. Each model keeps the profiles loaded
+ * in its own resource set: EMF resources cannot be shared by resource sets, so profiles are
+ * not shared by models, but they are read from their binary form with '--uml-cache'.
+ *
+ * A request is one line: the generation options of the command line separated by tabulations
+ * (--cpp-dir, --uml, --pkg, --cmakes, --incremental), or 'stop' to stop the server.
+ * The server answers with the generation output followed by a status line (see STATUS).
+ * Requests are read on stdin or, with a port, on a loopback socket (see Client), in which case
+ * up to 'jobs' requests are processed concurrently. On a socket, the request line must be
+ * preceded by a line holding the secret token written by the server in a file only readable
+ * by its user (see Client.getTokenFile).
+ * Requests generating into the same directory are processed one at a time, since the
+ * directory holds files shared by the generations (generation manifest, global xsd...).
+ */
+public class GenerationServer
+{
+	/** Last line of a response, followed by 'ok' or 'failed' */
+	public static final String STATUS = "#modane-status ";
+	public static final String STOP = "stop";
+
+	private final int port;
+	private final int jobs;
+	private final int threads;
+	private final int writerThreads;
+	private final File umlCacheDir;
+	private final Injector injector;
+	private final Map<String, CachedModel> models = new HashMap<>();
+	/** Locks of the UML files, indexed by absolute path, so that different files are loaded concurrently */
+	private final Map<String, Object> modelLocks = new HashMap<>();
+	/** Locks of the output directories, indexed by canonical path */
+	private final Map<String, Object> outputLocks = new HashMap<>();
+	private byte[] token;
+	/** Output of the request processed by the current thread */
+	private final ThreadLocal<Consumer<String>> output = new ThreadLocal<>();
+	private volatile boolean stopped = false;
+
+	public GenerationServer(int port, int jobs, int threads, int writerThreads, File umlCacheDir)
+	{
+		this.port = port;
+		this.jobs = jobs;
+		this.threads = threads;
+		this.writerThreads = writerThreads;
+		this.umlCacheDir = umlCacheDir;
+		this.injector = UmlToCpp.createInjector();
+		final Procedure2<ModaneGeneratorMessageDispatcher.MessageType, String> printOutput = (ModaneGeneratorMessageDispatcher.MessageType type, String msg) -> { println(msg); };
+		injector.getInstance(ModaneGeneratorMessageDispatcher.class).getTraceListeners().add(printOutput);
+	}
+
+	public void run() throws IOException
+	{
+		if (port > 0) serveSocket();
+		else serveStdin();
+	}
+
+	private void serveStdin() throws IOException
+	{
+		System.out.println(">>>>> Modane generation server ready on stdin");
+		final BufferedReader in = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+		String line;
+		while (!stopped && (line = in.readLine()) != null)
+		{
+			if (line.isBlank()) continue;
+			final boolean ok = process(line, msg -> System.out.println(msg));
+			System.out.println(STATUS + (ok ? "ok" : "failed"));
+			System.out.flush();
+		}
+	}
+
+	private void serveSocket() throws IOException
+	{
+		final ExecutorService executor = Executors.newFixedThreadPool(jobs);
+		final Path tokenFile = Client.getTokenFile(port).toPath();
+		try (ServerSocket serverSocket = new ServerSocket(port, 0, InetAddress.getLoopbackAddress()))
+		{
+			writeToken(tokenFile);
+			System.out.println(">>>>> Modane generation server ready on " + serverSocket.getLocalSocketAddress() + ", token in " + tokenFile);
+			while (!stopped)
+			{
+				final Socket socket;
+				try
+				{
+					socket = serverSocket.accept();
+				}
+				catch (SocketException e)
+				{
+					// server socket closed by a stop request
+					break;
+				}
+				executor.submit(() -> serve(socket, serverSocket));
+			}
+		}
+		finally
+		{
+			executor.shutdown();
+			Files.deleteIfExists(tokenFile);
+		}
+	}
+
+	/** Writes a new random token in a file created with read and write permissions for the user only */
+	private void writeToken(Path tokenFile) throws IOException
+	{
+		final byte[] bytes = new byte[32];
+		new SecureRandom().nextBytes(bytes);
+		final StringBuilder hex = new StringBuilder();
+		for (byte b : bytes)
+			hex.append(String.format("%02x", b));
+		token = hex.toString().getBytes(StandardCharsets.UTF_8);
+
+		Files.deleteIfExists(tokenFile);
+		try
+		{
+			Files.createFile(tokenFile, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+		}
+		catch (UnsupportedOperationException e)
+		{
+			// not a POSIX file system
+			final File f = Files.createFile(tokenFile).toFile();
+			f.setReadable(false, false);
+			f.setWritable(false, false);
+			f.setReadable(true, true);
+			f.setWritable(true, true);
+		}
+		Files.write(tokenFile, token);
+	}
+
+	private void serve(Socket socket, ServerSocket serverSocket)
+	{
+		try (Socket s = socket;
+			 BufferedReader in = new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8));
+			 PrintWriter out = new PrintWriter(new OutputStreamWriter(s.getOutputStream(), StandardCharsets.UTF_8)))
+		{
+			final String requestToken = in.readLine();
+			if (requestToken == null || !MessageDigest.isEqual(token, requestToken.getBytes(StandardCharsets.UTF_8)))
+			{
+				out.println("**    Invalid token");
+				out.println(STATUS + "failed");
+				out.flush();
+				return;
+			}
+			final String line = in.readLine();
+			if (line == null) return;
+			final boolean ok = process(line, msg -> { out.println(msg); out.flush(); });
+			out.println(STATUS + (ok ? "ok" : "failed"));
+			out.flush();
+			if (stopped) serverSocket.close();
+		}
+		catch (IOException e)
+		{
+			System.out.println("**    Request failed: " + e.getMessage());
+		}
+	}
+
+	/** Processes one request, its output being sent to out. Returns true if the generation succeeded */
+	private boolean process(String line, Consumer<String> out)
+	{
+		output.set(out);
+		try
+		{
+			if (line.trim().equals(STOP))
+			{
+				stopped = true;
+				println(">>>>> Modane generation server stopped");
+				return true;
+			}
+			// paths may contain spaces: only tabulations separate the options
+			if (!line.contains("\t"))
+			{
+				println("**    Request options must be separated by tabulations");
+				return false;
+			}
+			return generate(line.split("\t"));
+		}
+		catch (Exception e)
+		{
+			println("**    " + e.getClass().getSimpleName() + ": " + e.getMessage());
+			return false;
+		}
+		finally
+		{
+			output.remove();
+		}
+	}
+
+	private boolean generate(String[] args)
+	{
+		String cppDir = null;
+		String umlFile = null;
+		String pkgToGenerate = "";
+		boolean writeCMakesFiles = false;
+		boolean incremental = false;
+		for (int i=0 ; i<args.length ; ++i)
+		{
+			switch (args[i])
+			{
+			case "--cpp-dir": cppDir = args[++i]; break;
+			case "--uml": umlFile = args[++i]; break;
+			case "--pkg": pkgToGenerate = args[++i]; break;
+			case "--cmakes": writeCMakesFiles = true; break;
+			case "--incremental": incremental = true; break;
+			default:
+				println("**    Unknow request option: " + args[i]);
+				return false;
+			}
+		}
+		if (cppDir == null || !new File(cppDir).isDirectory() || umlFile == null || !new File(umlFile).isFile())
+		{
+			println("**    A request needs an existing --cpp-dir directory and --uml file");
+			return false;
+		}
+
+		final UmlToCpp umlToCpp = UmlToCpp.createInstance(injector);
+		umlToCpp.setIncremental(incremental);
+		umlToCpp.setNbThreads(threads);
+		umlToCpp.setNbWriterThreads(writerThreads);
+		umlToCpp.setUmlCacheDir(umlCacheDir);
+		final Model model = getModel(umlToCpp, umlFile);
+		// an output directory is not shared by concurrent generations (shared files), nor is
+		// a model (proxies are resolved on demand): locks are always taken in this order
+		synchronized (getOutputLock(cppDir))
+		{
+			synchronized (model)
+			{
+				println(">>>>> Starting generation process for: " + umlFile);
+				umlToCpp.generate(model, cppDir, "", pkgToGenerate, writeCMakesFiles, false);
+				println(">>>>> Generation process ended successfully for: " + umlFile);
+			}
+		}
+		return true;
+	}
+
+	private Object getOutputLock(String cppDir)
+	{
+		String key;
+		try
+		{
+			key = new File(cppDir).getCanonicalPath();
+		}
+		catch (IOException e)
+		{
+			key = new File(cppDir).getAbsolutePath();
+		}
+		synchronized (outputLocks)
+		{
+			return outputLocks.computeIfAbsent(key, k -> new Object());
+		}
+	}
+
+	/** Returns the model of the file, loaded again if one of the files of its resource set changed */
+	private Model getModel(UmlToCpp umlToCpp, String umlFile)
+	{
+		final String key = new File(umlFile).getAbsolutePath();
+		final Object lock;
+		synchronized (modelLocks)
+		{
+			lock = modelLocks.computeIfAbsent(key, k -> new Object());
+		}
+		synchronized (lock)
+		{
+			CachedModel cached;
+			synchronized (models)
+			{
+				cached = models.get(key);
+			}
+			if (cached != null && cached.isUpToDate())
+			{
+				println(">>>>> EMF UML resource already loaded: " + umlFile);
+				return cached.model;
+			}
+
+			println(">>>>> Loading EMF UML resource: " + umlFile);
+			final Model model = umlToCpp.readModel(URI.createFileURI(key));
+			synchronized (models)
+			{
+				models.put(key, new CachedModel(model));
+			}
+			println(">>>>> EMF UML resource loaded: " + umlFile);
+			return model;
+		}
+	}
+
+	private void println(String msg)
+	{
+		final Consumer<String> out = output.get();
+		if (out == null)
+			System.out.println(msg);
+		else
+			out.accept(msg);
+	}
+
+	/** A model with the date and size of the files of its resource set when it was loaded */
+	private static class CachedModel
+	{
+		final Model model;
+		final Map<File, Long> lastModified = new HashMap<>();
+		final Map<File, Long> length = new HashMap<>();
+
+		CachedModel(Model model)
+		{
+			this.model = model;
+			for (Resource r : model.eResource().getResourceSet().getResources())
+			{
+				if (r.getURI() != null && r.getURI().isFile())
+				{
+					final File f = new File(r.getURI().toFileString());
+					lastModified.put(f, f.lastModified());
+					length.put(f, f.length());
+				}
+			}
+		}
+
+		boolean isUpToDate()
+		{
+			for (Map.Entry<File, Long> e : lastModified.entrySet())
+			{
+				final File f = e.getKey();
+				if (f.lastModified() != e.getValue() || f.length() != length.get(f)) return false;
+			}
+			return true;
+		}
+	}
+}
@@ -22,6 +22,7 @@ import org.osgi.framework.BundleContext;
 
 import fr.cea.modane.sirius.fragmentation.FragmentationModelChangeTrigger;
 import fr.cea.modane.sirius.fragmentation.FragmentationNotificationFilter;
+import fr.cea.modane.sirius.ui.search.NewCyclesCheck;
 
 /**
  * The activator class controls the plug-in life cycle
@@ -53,6 +54,7 @@ public class Activator extends AbstractUIPlugin {
 	  Set<Viewpoint> modaneVPs = ViewpointRegistry.getInstance().registerFromPlugin(PLUGIN_ID + "/description/modane.odesign");
 	  viewpoints.addAll(modaneVPs);
 	  installFragmentation();
+	  installCyclesCheck();
     }
     
     /**
@@ -67,6 +69,13 @@ public class Activator extends AbstractUIPlugin {
 		});
     }
 
+    /**
+     * Check that no new dependency cycle between packages appears when a session is saved
+     */
+    private void installCyclesCheck() {
+    	SessionManager.INSTANCE.addSessionsListener(new NewCyclesCheck());
+    }
+
     /*
      * (non-Javadoc)
      * 
@@ -98,6 +98,8 @@ class GenerateCodeHandler extends AbstractHandler
 						val cMakeGenerator = new CMakeListsGenerator
 						shell.display.syncExec([shell.cursor = shell.display.getSystemCursor(SWT.CURSOR_WAIT)])
 						pc.generate(project.generateCMakeLists, codeGenerator, cMakeGenerator)
+						codeGenerator.generateXsdGlobalFile
+						codeGenerator.fsa.postStatistics
 						shell.display.syncExec([shell.cursor = null])
 						consoleFactory?.printConsole(MessageType.End, "Generation process ended successfully for: " + pc.name)
 						srcDir.refreshLocal(IResource::DEPTH_INFINITE, null)
@@ -0,0 +1,74 @@
+/*******************************************************************************
+ * Copyright (c) 2022 CEA
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * Contributors: see AUTHORS file
+ *******************************************************************************/
+package fr.cea.modane.sirius.internal;
+
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.common.notify.impl.AdapterImpl;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EReference;
+
+/**
+ * Aggregated status (error, warning...) of a container of the project tree,
+ * computed by the label decorator and kept until a diagnostic of its contents
+ * changes or until one of its containment references changes.
+ * The invalidation is propagated bottom-up to all the containers.
+ */
+public class ContainerStatusAttachment extends AdapterImpl {
+
+	private Object status;
+
+	/**
+	 * Returns the aggregated status, null if it must be computed.
+	 */
+	public Object getStatus() {
+		return status;
+	}
+
+	public void setStatus(Object status) {
+		this.status = status;
+	}
+
+	@Override
+	public boolean isAdapterForType(Object type) {
+		return type == ContainerStatusAttachment.class;
+	}
+
+	@Override
+	public void notifyChanged(Notification notification) {
+		if (!notification.isTouch() && notification.getFeature() instanceof EReference
+				&& ((EReference) notification.getFeature()).isContainment()) {
+			invalidate((EObject) notification.getNotifier());
+		}
+	}
+
+	public static ContainerStatusAttachment getOrCreate(EObject cur) {
+		for (Object adapter : cur.eAdapters()) {
+			if (adapter instanceof ContainerStatusAttachment) {
+				return (ContainerStatusAttachment) adapter;
+			}
+		}
+		ContainerStatusAttachment found = new ContainerStatusAttachment();
+		cur.eAdapters().add(found);
+		return found;
+	}
+
+	/**
+	 * Invalidates the aggregated status of the object and of all its containers.
+	 */
+	public static void invalidate(EObject cur) {
+		for (EObject o = cur; o != null; o = o.eContainer()) {
+			for (Object adapter : o.eAdapters()) {
+				if (adapter instanceof ContainerStatusAttachment) {
+					((ContainerStatusAttachment) adapter).status = null;
+				}
+			}
+		}
+	}
+}
@@ -31,6 +31,9 @@ public class DiagnosticAttachment extends AdapterImpl {
 
 	public void setDiagnostic(Diagnostic diagnostic) {
 		this.diagnostic = diagnostic;
+		if (getTarget() instanceof EObject) {
+			ContainerStatusAttachment.invalidate((EObject) getTarget());
+		}
 	}
 
 	public static DiagnosticAttachment getAttachment(EObject cur) {
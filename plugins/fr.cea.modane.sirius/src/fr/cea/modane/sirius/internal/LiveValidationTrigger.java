@@ -12,8 +12,15 @@ package fr.cea.modane.sirius.internal;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Set;
 
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.emf.common.command.Command;
 import org.eclipse.emf.common.notify.Notification;
 import org.eclipse.emf.common.util.Diagnostic;
@@ -26,6 +33,8 @@ import org.eclipse.emf.transaction.TransactionalEditingDomain;
 import org.eclipse.sirius.business.api.session.ModelChangeTrigger;
 import org.eclipse.sirius.ext.base.Option;
 import org.eclipse.sirius.ext.base.Options;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.ui.PlatformUI;
 import org.eclipse.xtext.EcoreUtil2;
 
 import com.google.common.collect.Sets;
@@ -33,11 +42,19 @@ import com.google.common.collect.Sets;
 import fr.cea.modane.modane.Function;
 import fr.cea.modane.modane.ModaneElement;
 import fr.cea.modane.modane.ModanePackage;
+import fr.cea.modane.sirius.Activator;
 
 /**
  * This class is strongly inspired by
  * https://github.com/eclipse/ecoretools/blob/master/org.eclipse.emf.ecoretools.design/src/org/eclipse/emf/ecoretools/design/service/LiveValidationTrigger.java
  *
+ * By default (BACKGROUND_VALIDATION_PREFERENCE preference of the plug-in), the changed
+ * objects are not validated inside the commit: they are accumulated and validated by a
+ * cancellable background job once no change occurred during QUIET_PERIOD milliseconds.
+ * The diagnostics are then attached to the objects and the error decorator is refreshed once.
+ * Setting the preference to false, for instance with the line
+ * 'fr.cea.modane.sirius/backgroundLiveValidation=false' in the plugin_customization.ini file
+ * of the product, validates the changed objects synchronously inside the commit.
  */
 public class LiveValidationTrigger implements ModelChangeTrigger {
 
@@ -50,8 +67,26 @@ public class LiveValidationTrigger implements ModelChangeTrigger {
 		}
 	};
 
+	public static final String BACKGROUND_VALIDATION_PREFERENCE = "backgroundLiveValidation";
+
+	public static final boolean BACKGROUND_VALIDATION_DEFAULT = true;
+
+	public static final long QUIET_PERIOD = 300;
+
+	private static final String ERROR_DECORATOR_ID = "fr.cea.modane.sirius.ui.ErrorDecorator";
+
 	private TransactionalEditingDomain domain;
 
+	private final Set<EObject> pendingObjects = Sets.newLinkedHashSet();
+
+	private final Job validationJob = new Job("Modane live validation") {
+
+		@Override
+		protected IStatus run(IProgressMonitor monitor) {
+			return revalidatePendingObjects(monitor);
+		}
+	};
+
 	/**
 	 * We need to be triggered before the refresh mechanism takes place so that the
 	 * diagnostic attachments are up-to date when computing colors.
@@ -60,6 +95,22 @@ public class LiveValidationTrigger implements ModelChangeTrigger {
 
 	public LiveValidationTrigger(TransactionalEditingDomain domain) {
 		this.domain = domain;
+		this.validationJob.setSystem(true);
+		this.validationJob.setPriority(Job.DECORATE);
+	}
+
+	public static boolean isBackgroundValidation() {
+		return Platform.getPreferencesService().getBoolean(Activator.PLUGIN_ID, BACKGROUND_VALIDATION_PREFERENCE, BACKGROUND_VALIDATION_DEFAULT, null);
+	}
+
+	/**
+	 * Cancels the pending background validation, called when the session is closed.
+	 */
+	public void dispose() {
+		validationJob.cancel();
+		synchronized (pendingObjects) {
+			pendingObjects.clear();
+		}
 	}
 
 	public Option<Command> localChangesAboutToCommit(Collection<Notification> notifications) {
@@ -71,7 +122,17 @@ public class LiveValidationTrigger implements ModelChangeTrigger {
 				changedModaneObjects.add((EObject) obj);
 			}
 		}
-		if (changedModaneObjects.size() > 0) {
+		if (changedModaneObjects.size() > 0 && isBackgroundValidation()) {
+			synchronized (pendingObjects) {
+				for (EObject eObj : changedModaneObjects) {
+					pendingObjects.add(eObj);
+					pendingObjects.addAll(getParentsToValidate(eObj));
+				}
+			}
+			// a running validation is obsolete: it is cancelled and the job restarts after the quiet period
+			validationJob.cancel();
+			validationJob.schedule(QUIET_PERIOD);
+		} else if (changedModaneObjects.size() > 0) {
 
 			Command revalidateEObjects = new RecordingCommand(this.domain) {
 
@@ -86,12 +147,7 @@ public class LiveValidationTrigger implements ModelChangeTrigger {
 
 				protected void revalidate(EObject eObj) {
 					try {
-						Diagnostic diagnostic = Diagnostician.INSTANCE.validate(eObj);
-						DiagnosticAttachment diag = DiagnosticAttachment.getAttachment(eObj);
-						if (diag == null) {
-							diag = DiagnosticAttachment.getOrCreate(eObj, diagnostic);
-						}
-						diag.setDiagnostic(diagnostic);
+						attach(eObj, Diagnostician.INSTANCE.validate(eObj));
 					} catch (Throwable e) {
 						/*
 						 * Anything which happens here might not be a concern.
@@ -111,9 +167,81 @@ public class LiveValidationTrigger implements ModelChangeTrigger {
 	private Collection<EObject> getParentsToValidate(EObject eObj)
 	{
 		ArrayList<EObject> parentsToValidate = new ArrayList<EObject>();
-		parentsToValidate.add(EcoreUtil2.getContainerOfType(eObj, Function.class));
-		parentsToValidate.add(EcoreUtil2.getContainerOfType(eObj, ModaneElement.class));
+		EObject function = EcoreUtil2.getContainerOfType(eObj, Function.class);
+		if (function != null) parentsToValidate.add(function);
+		EObject element = EcoreUtil2.getContainerOfType(eObj, ModaneElement.class);
+		if (element != null) parentsToValidate.add(element);
 		return parentsToValidate;
 	}
 
+	private static void attach(EObject eObj, Diagnostic diagnostic) {
+		DiagnosticAttachment diag = DiagnosticAttachment.getAttachment(eObj);
+		if (diag == null) {
+			diag = DiagnosticAttachment.getOrCreate(eObj, diagnostic);
+		}
+		diag.setDiagnostic(diagnostic);
+	}
+
+	/**
+	 * Validates the pending objects and attaches their diagnostics in a read-only
+	 * transaction, then refreshes the error decorator. If the job is
+	 * cancelled, the objects which have not been validated stay pending for the
+	 * next run.
+	 */
+	private IStatus revalidatePendingObjects(IProgressMonitor monitor) {
+		final ArrayList<EObject> objects;
+		synchronized (pendingObjects) {
+			objects = new ArrayList<EObject>(pendingObjects);
+			pendingObjects.clear();
+		}
+		final Map<EObject, Diagnostic> diagnostics = new LinkedHashMap<EObject, Diagnostic>();
+		try {
+			domain.runExclusive(() -> {
+				for (EObject eObj : objects) {
+					if (monitor.isCanceled()) {
+						break;
+					}
+					// objects removed from the model since the change are ignored
+					if (eObj.eResource() != null) {
+						try {
+							diagnostics.put(eObj, Diagnostician.INSTANCE.validate(eObj));
+						} catch (Throwable e) {
+							/*
+							 * Anything which happens here might not be a concern.
+							 */
+						}
+					}
+				}
+				for (Map.Entry<EObject, Diagnostic> entry : diagnostics.entrySet()) {
+					attach(entry.getKey(), entry.getValue());
+				}
+			});
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		if (diagnostics.size() < objects.size() && monitor.isCanceled()) {
+			synchronized (pendingObjects) {
+				for (EObject eObj : objects) {
+					if (!diagnostics.containsKey(eObj)) {
+						pendingObjects.add(eObj);
+					}
+				}
+			}
+		}
+
+		if (!diagnostics.isEmpty()) {
+			refreshDecorator();
+		}
+		return monitor.isCanceled() ? Status.CANCEL_STATUS : Status.OK_STATUS;
+	}
+
+	private static void refreshDecorator() {
+		if (!PlatformUI.isWorkbenchRunning()) {
+			return;
+		}
+		Display display = PlatformUI.getWorkbench().getDisplay();
+		display.asyncExec(() -> PlatformUI.getWorkbench().getDecoratorManager().update(ERROR_DECORATOR_ID));
+	}
+
 }
@@ -13,6 +13,8 @@ import org.eclipse.sirius.business.api.session.Session;
 import org.eclipse.sirius.business.api.session.SessionManagerListener;
 import org.eclipse.sirius.viewpoint.description.Viewpoint;
 
+import fr.cea.modane.sirius.services.ModaneElementColorExtensions;
+
 public class ModaneSessionListener implements SessionManagerListener {
 
 	private LiveValidationTrigger liveValidationTrigger;
@@ -34,7 +36,9 @@ public class ModaneSessionListener implements SessionManagerListener {
 	public void notifyRemoveSession(Session newSession) {
 		if (this.liveValidationTrigger != null) {
 			newSession.getEventBroker().removeLocalTrigger(this.liveValidationTrigger);
+			this.liveValidationTrigger.dispose();
 		}
+		ModaneElementColorExtensions.clearPackageColors();
 	}
 
 	@Override
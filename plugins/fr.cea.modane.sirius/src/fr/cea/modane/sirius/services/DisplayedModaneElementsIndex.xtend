@@ -0,0 +1,93 @@
+/*******************************************************************************
+ * Copyright (c) 2022 CEA
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * Contributors: see AUTHORS file
+ *******************************************************************************/
+package fr.cea.modane.sirius.services
+
+import fr.cea.modane.modane.ModaneElement
+import java.util.Collection
+import java.util.Collections
+import java.util.HashSet
+import java.util.Set
+import org.eclipse.emf.common.notify.Notification
+import org.eclipse.emf.common.notify.Notifier
+import org.eclipse.emf.common.notify.impl.AdapterImpl
+import org.eclipse.emf.ecore.util.EcoreUtil
+import org.eclipse.sirius.diagram.DSemanticDiagram
+import org.eclipse.sirius.diagram.DiagramPackage
+import org.eclipse.sirius.viewpoint.ViewpointPackage
+
+/**
+ * Index des éléments Modane affichés sur un diagramme, attaché au diagramme comme adapter.
+ * Il est reconstruit à la première interrogation qui suit un ajout/suppression d'élément
+ * du diagramme ou un changement de cible d'un de ses éléments.
+ */
+class DisplayedModaneElementsIndex extends AdapterImpl
+{
+	val DSemanticDiagram diagram
+	volatile Set<ModaneElement> displayedElements = null
+
+	static def getIndex(DSemanticDiagram diagram)
+	{
+		var index = EcoreUtil::getExistingAdapter(diagram, DisplayedModaneElementsIndex) as DisplayedModaneElementsIndex
+		if (index === null)
+		{
+			index = new DisplayedModaneElementsIndex(diagram)
+			diagram.eAdapters += index
+		}
+		return index
+	}
+
+	private new(DSemanticDiagram diagram)
+	{
+		this.diagram = diagram
+	}
+
+	def getDisplayedElements()
+	{
+		var elements = displayedElements
+		if (elements === null)
+		{
+			elements = build
+			displayedElements = elements
+		}
+		return elements
+	}
+
+	override isAdapterForType(Object type) { type == DisplayedModaneElementsIndex }
+
+	override notifyChanged(Notification notification)
+	{
+		if (notification.touch) return
+
+		if (notification.feature == DiagramPackage.Literals::DDIAGRAM__OWNED_DIAGRAM_ELEMENTS)
+		{
+			displayedElements = null
+			switch notification.eventType
+			{
+				case Notification::REMOVE : (notification.oldValue as Notifier)?.eAdapters?.remove(this)
+				case Notification::REMOVE_MANY : for (n : notification.oldValue as Collection<Notifier>) n.eAdapters.remove(this)
+				case Notification::SET : (notification.oldValue as Notifier)?.eAdapters?.remove(this)
+			}
+		}
+		else if (notification.feature == ViewpointPackage.Literals::DSEMANTIC_DECORATOR__TARGET)
+			displayedElements = null
+	}
+
+	/** L'index s'attache aussi aux éléments du diagramme pour être notifié des changements de cible */
+	private def build()
+	{
+		val elements = new HashSet<ModaneElement>
+		for (n : diagram.ownedDiagramElements)
+		{
+			if (!n.eAdapters.contains(this)) n.eAdapters += this
+			if (n.target instanceof ModaneElement) elements += n.target as ModaneElement
+		}
+		return Collections::unmodifiableSet(elements)
+	}
+}
@@ -12,11 +12,17 @@ package fr.cea.modane.sirius.services
 import fr.cea.modane.modane.ModaneElement
 import fr.cea.modane.modane.ModaneModel
 import java.util.Properties
+import java.util.concurrent.ConcurrentHashMap
 import org.eclipse.core.resources.IProject
+import org.eclipse.core.resources.IResource
+import org.eclipse.swt.graphics.RGB
+import org.eclipse.xtend.lib.annotations.Data
 
 /** 
  * Retourne la couleur du package d'un élément du modèle.
- * Le projet est stocké pour éviter de relire le fichier de propriétés si ce n'est pas nécessaire
+ * Les couleurs sont calculées une fois par package et par projet, sous forme de composantes RGB
+ * sans allocation de ressource graphique. Le fichier de propriétés d'un projet n'est relu
+ * que si sa date de modification a changé.
  */
 class ModaneElementColorExtensions
 {
@@ -28,24 +34,40 @@ class ModaneElementColorExtensions
 								  '41,128,185', '52,152,219', '51,157,255', '30,15,190', '102,0,153']
  
 	static val PtyFileName = 'packagecolors.properties'
-	static val pties = new Properties
-	static var IProject project
+	static val ColorsByProject = new ConcurrentHashMap<IProject, ProjectPackageColors>
+	static val NoProjectColors = new ProjectPackageColors(IResource::NULL_STAMP, new Properties)
 	
-	static def getPackageColor(ModaneElement it)  
+	static def RGB getPackageColor(ModaneElement it)  
 	{ 
-		elementProject.loadPties
-		val cs =  packageColorString.split(',').map[s | Integer.parseInt(s.trim)]
-		Utils::getColor(cs.get(0), cs.get(1), cs.get(2))
+		val colors = elementProject.packageColors
+		colors.rgbs.computeIfAbsent(packageName, [n | colors.pties.getProperty(n, n.defaultPackageColorString).toRGB])
+	}
+
+	/** Vide le cache des couleurs, appelé à la fermeture d'une session */
+	static def clearPackageColors()
+	{
+		ColorsByProject.clear
 	}
 	
-	private static def loadPties(IProject p)
+	private static def getPackageColors(IProject p)
 	{
-		if (project != p)
+		if (p === null) return NoProjectColors
+
+		val ptyFile = p.getFile(PtyFileName)
+		val stamp = ptyFile.modificationStamp
+		var colors = ColorsByProject.get(p)
+		if (colors === null || colors.stamp != stamp)
 		{
-			project = p
-			val ptyFile = project.getFile(PtyFileName)
-			if (ptyFile.exists) pties.load(ptyFile.contents)
+			val pties = new Properties
+			if (ptyFile.exists)
+			{
+				val stream = ptyFile.contents
+				try pties.load(stream) finally stream.close
+			}
+			colors = new ProjectPackageColors(stamp, pties)
+			ColorsByProject.put(p, colors)
 		}
+		return colors
 	}
 	
 	private static def getElementProject(ModaneElement it)
@@ -54,13 +76,14 @@ class ModaneElementColorExtensions
 		if (workspaceFile === null) null
 		else workspaceFile.project		
 	}
-	
-	private static def getPackageColorString(ModaneElement it) 
+
+	private static def toRGB(String colorString)
 	{
-		pties.getProperty(packageName, defaultPackageColorString)
+		val cs = colorString.split(',').map[s | Integer.parseInt(s.trim)]
+		new RGB(cs.get(0), cs.get(1), cs.get(2))
 	}
 	
-	private static def getDefaultPackageColorString(ModaneElement it)
+	private static def getDefaultPackageColorString(String packageName)
 	{
 		PackageColors.get(Math::abs(packageName.hashCode) % PackageColors.size)
 	}
@@ -69,4 +92,12 @@ class ModaneElementColorExtensions
 	{ 
 		(eContainer as ModaneModel).name
 	}
-}
+}
+
+@Data
+class ProjectPackageColors
+{
+	val long stamp
+	val Properties pties
+	val rgbs = new ConcurrentHashMap<String, RGB>
+}
@@ -9,10 +9,10 @@
  *******************************************************************************/
 package fr.cea.modane.sirius.services
 
-import fr.cea.modane.ModaneStandaloneSetupGenerated
 import fr.cea.modane.modane.EnumerationLiteral
 import fr.cea.modane.modane.Pty
 import fr.cea.modane.modane.ServiceOrModule
+import fr.cea.modane.ui.internal.ModaneActivator
 import fr.cea.modane.validation.ModaneValidator
 
 class PropertiesValidationUtils 
@@ -23,24 +23,36 @@ class PropertiesValidationUtils
 	// NB attention à l'ordre des extensions dans le odesign.
 	// PropertiesValidationUtils doit être en dessous de ModaneValiator !
 
+	// Validateur partagé par tous les appels, créé à la première validation avec l'injecteur
+	// de ModaneActivator : les règles sont évaluées à chaque rafraîchissement de la vue propriétés.
+	static volatile ModaneValidator sharedValidator
+
 	def checkUniqueNameFr(ServiceOrModule sorm)
 	{
-		val injector = new ModaneStandaloneSetupGenerated().createInjectorAndDoEMFRegistration
-		val modaneValidator = injector.getInstance(ModaneValidator)
 		modaneValidator.checkUniqueNameFr(sorm)
 	}
 
 	def checkUniqueNameFr(Pty pty)
 	{
-		val injector = new ModaneStandaloneSetupGenerated().createInjectorAndDoEMFRegistration
-		val modaneValidator = injector.getInstance(ModaneValidator)
 		modaneValidator.checkUniqueNameFr(pty)
 	}
 
 	def checkUniqueNameFr(EnumerationLiteral el)
 	{
-		val injector = new ModaneStandaloneSetupGenerated().createInjectorAndDoEMFRegistration
-		val modaneValidator = injector.getInstance(ModaneValidator)
 		modaneValidator.checkUniqueNameFr(el)
 	}
-}
\ No newline at end of file
+
+	private static def getModaneValidator()
+	{
+		if (sharedValidator === null)
+			synchronized (PropertiesValidationUtils)
+			{
+				if (sharedValidator === null)
+				{
+					val injector = ModaneActivator.instance.getInjector(ModaneActivator.FR_CEA_MODANE_MODANE)
+					sharedValidator = injector.getInstance(ModaneValidator)
+				}
+			}
+		return sharedValidator
+	}
+}
@@ -63,7 +63,7 @@ class SemanticDiagramExtensions
 
 	static def getDisplayedModaneElements(DSemanticDiagram it)
 	{
-		return ownedDiagramElements.filter[ n | n.target !== null && n.target instanceof ModaneElement].map[ n | n.target as ModaneElement].toSet
+		return DisplayedModaneElementsIndex::getIndex(it).displayedElements
 	}
 
 	static def getContainingDiagramTargets(DSemanticDiagram it, ModaneElement element)
@@ -33,8 +33,6 @@ import org.eclipse.emf.ecore.EObject
 import org.eclipse.emf.ecore.util.Diagnostician
 import org.eclipse.sirius.business.api.session.SessionManager
 import org.eclipse.sirius.diagram.DSemanticDiagram
-import org.eclipse.swt.graphics.Color
-import org.eclipse.swt.graphics.RGB
 import org.eclipse.swt.widgets.Display
 import org.eclipse.swt.widgets.Shell
 
@@ -55,11 +53,6 @@ class Utils
 		}
 	}
 
-	static def getColor(int r, int g, int b)
-	{ 
-		new Color(Display::^default, new RGB(r, g, b));
-	}
-
 	static def getReturnTypeName(Function it)
 	{
 		if (type === null) 'void'
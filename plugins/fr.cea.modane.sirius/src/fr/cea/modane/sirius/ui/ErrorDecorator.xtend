@@ -9,18 +9,24 @@
  *******************************************************************************/
 package fr.cea.modane.sirius.ui
 
-import fr.cea.modane.modane.ModaneModel
 import fr.cea.modane.modane.ModanePackage
 import fr.cea.modane.modaneproject.ModaneProject
+import fr.cea.modane.modaneproject.Package
 import fr.cea.modane.modaneproject.PackagesContainer
+import fr.cea.modane.sirius.internal.ContainerStatusAttachment
 import fr.cea.modane.sirius.ui.wizard.ProjectCreationOperation
 import java.util.ArrayList
+import java.util.HashMap
+import java.util.Map
+import java.util.WeakHashMap
 import org.eclipse.core.resources.IFile
 import org.eclipse.emf.ecore.EObject
+import org.eclipse.emf.ecore.resource.Resource
 import org.eclipse.jface.viewers.IDecoration
 import org.eclipse.jface.viewers.ILabelProviderListener
 import org.eclipse.jface.viewers.ILightweightLabelDecorator
 import org.eclipse.sirius.business.api.modelingproject.ModelingProject
+import org.eclipse.sirius.business.api.session.Session
 import org.eclipse.ui.ISharedImages
 import org.eclipse.ui.PlatformUI
 
@@ -32,6 +38,8 @@ class ErrorDecorator implements ILightweightLabelDecorator
 	static val WarningOverlay = PlatformUI.workbench.sharedImages.getImageDescriptor(ISharedImages.IMG_DEC_FIELD_WARNING)
 
 	val listeners = new ArrayList<ILabelProviderListener>
+	// ressources sémantiques des sessions indexées par chemin, reconstruites quand la session change
+	val resourcesBySession = new WeakHashMap<Session, SemanticResources>
 
 	override decorate(Object element, IDecoration decoration) 
 	{
@@ -82,7 +90,7 @@ class ErrorDecorator implements ILightweightLabelDecorator
 			val session = modelingProject.get().getSession();
 			if (session !== null)
 			{
-				val resource = session.semanticResources.findFirst[x | x.URI !== null  && x.URI.toPlatformString(false) == file.fullPath.toString]
+				val resource = session.getSemanticResource(file.fullPath.toString)
 				if (resource !== null)
 				{
 					val modaneProject = resource.contents.get(0) as ModaneProject
@@ -93,25 +101,43 @@ class ErrorDecorator implements ILightweightLabelDecorator
 		return status
 	}
 	
-	private def getStatus(PackagesContainer pc)
+	private def getSemanticResource(Session session, String path)
 	{
-		pc.eAllContents.filter(ModaneModel).toIterable.status
-	}
-		
-	private def getStatus(Iterable<? extends EObject> l)
-	{
-		var warningExists = false
-		for (o : l)
+		synchronized (resourcesBySession)
 		{
-			switch o.status
+			var resources = resourcesBySession.get(session)
+			var resource = resources?.byPath?.get(path)
+			val valid = if (resource === null) resources !== null && resources.size == session.semanticResources.size
+						else resource.resourceSet !== null && resource.URI.toPlatformString(false) == path
+			if (!valid)
 			{
-				case Status::Error : return Status::Error
-				case Status::Warning : warningExists = true
-				default : {}
+				resources = new SemanticResources(session)
+				resourcesBySession.put(session, resources)
+				resource = resources.byPath.get(path)
 			}
-		}	
-		if (warningExists) return Status::Warning
-		else return Status::Ok
+			return resource
+		}
+	}
+
+	/** Le statut d'un conteneur est conservé par un ContainerStatusAttachment invalidé par les diagnostics */
+	private def Status getStatus(PackagesContainer pc)
+	{
+		val attachment = ContainerStatusAttachment::getOrCreate(pc)
+		var status = attachment.status as Status
+		if (status === null)
+		{
+			status = Status::Ok
+			if (pc instanceof Package && (pc as Package).model !== null)
+				status = (pc as Package).model.status
+			for (p : pc.subPackages)
+				if (status != Status::Error)
+				{
+					val pStatus = p.status
+					if (pStatus != Status::Ok) status = pStatus
+				}
+			attachment.status = status
+		}
+		return status
 	}
 	
 	/** ici o.eClass.ePackage = Modane.Package  */	
@@ -125,6 +151,20 @@ class ErrorDecorator implements ILightweightLabelDecorator
 			return Status::Ok
 	}
 	
+	private static class SemanticResources
+	{
+		public val Map<String, Resource> byPath = new HashMap<String, Resource>
+		public val int size
+
+		new(Session session)
+		{
+			size = session.semanticResources.size
+			for (r : session.semanticResources)
+				if (r.URI !== null && r.URI.toPlatformString(false) !== null)
+					byPath.put(r.URI.toPlatformString(false), r)
+		}
+	}
+
 	private enum Status
 	{
 		Error,
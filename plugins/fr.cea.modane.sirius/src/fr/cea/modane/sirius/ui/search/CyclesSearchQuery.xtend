@@ -9,6 +9,7 @@
  *******************************************************************************/
 package fr.cea.modane.sirius.ui.search
 
+import fr.cea.modane.cycles.CyclesFinder
 import fr.cea.modane.cycles.DependencyGraph
 import fr.cea.modane.cycles.GraphBuilder
 import fr.cea.modane.ui.internal.ModaneActivator
@@ -21,10 +22,17 @@ import fr.cea.modane.modaneproject.ModaneProject
 
 import static extension fr.cea.modane.project.PackagesContainerExtensions.*
 
+/**
+ * Recherche des dépendances cycliques entre packages.
+ * Les cycles sont ajoutés au résultat au fur et à mesure de la recherche,
+ * qui peut être annulée et qui est bornée en nombre et en longueur de cycles.
+ */
 class CyclesSearchQuery implements ISearchQuery 
 {
 	DependencyGraph graph
-	val GraphBuilder graphBuilder	
+	@Accessors int maxCycles = 1000
+	@Accessors int maxLength = CyclesFinder::NoLimit
+	val GraphBuilder graphBuilder
 	val CyclesSearchResult result
 	@Accessors(PUBLIC_SETTER)
 	ModaneProject modaneProject
@@ -49,14 +57,30 @@ class CyclesSearchQuery implements ISearchQuery
 			
 		try
 		{
-			// construction du graphe et recherche des cycles
-			graph = graphBuilder.createGraph(modaneModels)			
-			result.cycles = graph.findSimpleCycles()
+			monitor.beginTask(label, IProgressMonitor::UNKNOWN)
+
+			// construction du graphe compact, qui ne retient pas les modèles, et recherche des cycles
+			graph = graphBuilder.createGraph(modaneModels)
+			result.clear
+			val finder = new CyclesFinder(graph)
+			finder.maxCycles = maxCycles
+			finder.maxLength = maxLength
+			finder.monitor = monitor
+			finder.findSimpleCycles[c | result.addCycle(c)]
+
+			if (monitor.canceled)
+				return Status::CANCEL_STATUS
+			if (finder.limitReached)
+				return new Status(Status::INFO, ModaneActivator::FR_CEA_MODANE_MODANE, "Recherche interrompue après " + maxCycles + " cycles", null)
 			return Status::OK_STATUS
 		}
 		catch (Exception e)
 		{
 			return new Status(Status::ERROR, ModaneActivator::FR_CEA_MODANE_MODANE, e.message, null)
 		}
+		finally
+		{
+			monitor.done
+		}
 	}
 }
@@ -10,15 +10,24 @@
 package fr.cea.modane.sirius.ui.search
 
 import fr.cea.modane.ui.ModaneUiUtils
+import java.util.ArrayList
+import java.util.Collections
 import java.util.List
+import java.util.concurrent.CopyOnWriteArrayList
 import org.eclipse.search.ui.ISearchResult
 import org.eclipse.search.ui.ISearchResultListener
+import org.eclipse.search.ui.SearchResultEvent
 import org.eclipse.xtend.lib.annotations.Accessors
 
+/**
+ * Résultat de la recherche de cycles, alimenté au fil de la recherche.
+ * Les listeners sont notifiés à chaque cycle ajouté, depuis le thread de la recherche.
+ */
 class CyclesSearchResult implements ISearchResult
 {
-	@Accessors List<List<String>> cycles
+	@Accessors(PUBLIC_GETTER) List<List<String>> cycles
 	val CyclesSearchQuery query
+	val listeners = new CopyOnWriteArrayList<ISearchResultListener>
 
 	new(CyclesSearchQuery query)
 	{
@@ -26,8 +35,26 @@ class CyclesSearchResult implements ISearchResult
 	}
 
 	def getGraph() { query.graph }
-	override addListener(ISearchResultListener l) { }
-	override removeListener(ISearchResultListener l) { }
+	override addListener(ISearchResultListener l) { listeners.addIfAbsent(l) }
+	override removeListener(ISearchResultListener l) { listeners.remove(l) }
+
+	def clear()
+	{
+		cycles = Collections::synchronizedList(new ArrayList<List<String>>)
+		fireChanged
+	}
+
+	def addCycle(List<String> cycle)
+	{
+		cycles += cycle
+		fireChanged
+	}
+
+	private def fireChanged()
+	{
+		val event = new CyclesSearchResultEvent(this)
+		for (l : listeners) l.searchResultChanged(event)
+	}
 
 	override getImageDescriptor()
 	{
@@ -39,3 +66,11 @@ class CyclesSearchResult implements ISearchResult
 	override getLabel() { query.label }
 	override getTooltip() { label }
 }
+
+class CyclesSearchResultEvent extends SearchResultEvent
+{
+	new(CyclesSearchResult result)
+	{
+		super(result)
+	}
+}
@@ -46,8 +46,8 @@ class CyclesSearchResultContentProvider extends ArrayContentProvider implements
 						{
 							val startNode = parentElement.get(i-1) as String
 							val targetNode = parentElement.get(i) as String
-							val dependencies = graph.getDependencyInfos(startNode, targetNode)
-							segments.add(new EdgeResultInfo(startNode, targetNode, dependencies))
+							val nbDependencies = graph.getNbDependencies(startNode, targetNode)
+							segments.add(new EdgeResultInfo(graph, startNode, targetNode, nbDependencies))
 						}	
 						return segments
 					}
@@ -77,11 +77,15 @@ class CyclesSearchResultContentProvider extends ArrayContentProvider implements
 	}
 }
 
+/** Les dépendances d'un segment ne sont construites que lorsque le segment est déplié */
 @Data
 package class EdgeResultInfo 
 {
+	val DependencyGraph graph
 	val String startNode
 	val String endNode
-	val List<DependencyInfo> infos
+	val int nbDependencies
+
+	def getInfos() { graph.getDependencyInfos(startNode, endNode) }
 }
 
@@ -71,8 +71,8 @@ class CyclesSearchResultSourceLabelProvider extends CyclesSearchResultLabelProvi
 			EdgeResultInfo :
 			{
 				var t = o.startNode + DependencyGraph::Separator + o.endNode
-				t = t + '  (' + o.infos.size + ' dépendance'
-				if (o.infos.size > 1) t = t + 's'
+				t = t + '  (' + o.nbDependencies + ' dépendance'
+				if (o.nbDependencies > 1) t = t + 's'
 				t + ')'
 			}
 		}
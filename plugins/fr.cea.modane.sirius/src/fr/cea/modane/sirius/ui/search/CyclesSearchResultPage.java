@@ -9,6 +9,8 @@
  *******************************************************************************/
 package fr.cea.modane.sirius.ui.search;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+
 import org.eclipse.jface.dialogs.DialogPage;
 import org.eclipse.jface.viewers.DoubleClickEvent;
 import org.eclipse.jface.viewers.IDoubleClickListener;
@@ -19,9 +21,11 @@ import org.eclipse.jface.viewers.TreeViewerColumn;
 import org.eclipse.search.ui.IQueryListener;
 import org.eclipse.search.ui.ISearchQuery;
 import org.eclipse.search.ui.ISearchResult;
+import org.eclipse.search.ui.ISearchResultListener;
 import org.eclipse.search.ui.ISearchResultPage;
 import org.eclipse.search.ui.ISearchResultViewPart;
 import org.eclipse.search.ui.NewSearchUI;
+import org.eclipse.search.ui.SearchResultEvent;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.layout.GridData;
 import org.eclipse.swt.layout.GridLayout;
@@ -47,6 +51,8 @@ public class CyclesSearchResultPage extends DialogPage implements ISearchResultP
 	private Object uiState;
 	private Composite composite;
 	private TreeViewer searchResultTreeViewer;
+	private final ISearchResultListener resultListener = new ResultListener();
+	private final AtomicBoolean refreshPending = new AtomicBoolean();
 	@SuppressWarnings("unused")
 	private ISearchResultViewPart viewPart;
 	
@@ -106,7 +112,12 @@ public class CyclesSearchResultPage extends DialogPage implements ISearchResultP
 	@Override
 	public void setInput(ISearchResult search, Object uiState) 
 	{
-		if (search != null && search instanceof CyclesSearchResult) this.result = (CyclesSearchResult)search;
+		if (search != null && search instanceof CyclesSearchResult)
+		{
+			if (result != null) result.removeListener(resultListener);
+			this.result = (CyclesSearchResult)search;
+			result.addListener(resultListener);
+		}
 		this.uiState = uiState;
 	}
 
@@ -128,6 +139,42 @@ public class CyclesSearchResultPage extends DialogPage implements ISearchResultP
 	@Override
 	public String getLabel() { return "Dépendances cycliques entre packages"; }
 
+	@Override
+	public void dispose()
+	{
+		if (result != null) result.removeListener(resultListener);
+		super.dispose();
+	}
+
+	/** Affiche les cycles trouvés jusqu'ici : doit être appelée dans le thread UI */
+	private void showCycles()
+	{
+		refreshPending.set(false);
+		if (result == null || result.getCycles() == null || searchResultTreeViewer.getControl().isDisposed()) return;
+		if (searchResultTreeViewer.getInput() != result.getCycles())
+		{
+			searchResultTreeViewer.setContentProvider(new CyclesSearchResultContentProvider(result.getGraph()));
+			searchResultTreeViewer.setInput(result.getCycles());
+		}
+		else
+			searchResultTreeViewer.refresh();
+	}
+
+	/** Regroupe les notifications de la recherche en un seul rafraîchissement de l'arbre */
+	private class ResultListener implements ISearchResultListener
+	{
+		@Override
+		public void searchResultChanged(SearchResultEvent e)
+		{
+			if (refreshPending.compareAndSet(false, true))
+			{
+				Display.getDefault().asyncExec(new Runnable() {
+					public void run() { showCycles(); }
+				});
+			}
+		}
+	}
+
 	private class QueryListener implements IQueryListener
 	{
 		@Override
@@ -143,14 +190,7 @@ public class CyclesSearchResultPage extends DialogPage implements ISearchResultP
 		public void queryFinished(ISearchQuery query) 
 		{
 			Display.getDefault().asyncExec(new Runnable() {
-				public void run()
-				{
-					if (result != null && result.getCycles() != null)
-					{
-						searchResultTreeViewer.setContentProvider(new CyclesSearchResultContentProvider(result.getGraph()));
-						searchResultTreeViewer.setInput(result.getCycles());
-					}
-				}
+				public void run() { showCycles(); }
 			});
 		}
 	}
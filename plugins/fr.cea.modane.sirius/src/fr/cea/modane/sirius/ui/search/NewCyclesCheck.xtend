@@ -0,0 +1,51 @@
+/*******************************************************************************
+ * Copyright (c) 2022 CEA
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * Contributors: see AUTHORS file
+ *******************************************************************************/
+package fr.cea.modane.sirius.ui.search
+
+import fr.cea.modane.cycles.DependencyGraph
+import fr.cea.modane.cycles.IncrementalDependencyGraph
+import fr.cea.modane.modaneproject.ModaneProject
+import fr.cea.modane.sirius.Activator
+import java.util.ArrayList
+import java.util.List
+import org.eclipse.core.runtime.IStatus
+import org.eclipse.core.runtime.Status
+import org.eclipse.emf.ecore.resource.Resource
+import org.eclipse.sirius.business.api.session.Session
+import org.eclipse.sirius.business.api.session.SessionListener
+import org.eclipse.sirius.business.api.session.SessionManagerListener
+
+/**
+ * Vérification "pas de nouveau cycle" entre les packages d'un projet Modane.
+ * Le graphe incrémental du projet est construit à l'ouverture de la session et sert
+ * de référence. A chaque sauvegarde, seuls les arcs apparus depuis la vérification
+ * précédente sont examinés et les nouveaux cycles sont signalés dans le journal d'erreurs.
+ * La recherche complète des cycles reste disponible avec CyclesSearchQuery.
+ */
+class NewCyclesCheck extends SessionManagerListener.Stub
+{
+	override notify(Session session, int notification)
+	{
+		if (notification == SessionListener::OPENED || notification == SessionListener::SYNC)
+			for (cycle : findNewCycles(session.semanticResources))
+				Activator::getDefault.log.log(new Status(IStatus::WARNING, Activator::PLUGIN_ID, 
+					"Nouveau cycle de dépendances entre packages : " + cycle.join(DependencyGraph::Separator)))
+	}
+
+	/** Nouveaux cycles des projets Modane contenus dans resources depuis l'appel précédent */
+	def findNewCycles(Iterable<Resource> resources)
+	{
+		val cycles = new ArrayList<List<String>>
+		for (r : resources)
+			for (project : r.contents.filter(ModaneProject))
+				cycles += IncrementalDependencyGraph::getGraph(project).findNewCycles
+		return cycles
+	}
+}
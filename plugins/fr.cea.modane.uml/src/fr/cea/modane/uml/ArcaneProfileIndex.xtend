@@ -0,0 +1,180 @@
+/*******************************************************************************
+ * Copyright (c) 2022 CEA
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * Contributors: see AUTHORS file
+ *******************************************************************************/
+package fr.cea.modane.uml
+
+import java.util.ArrayDeque
+import java.util.ArrayList
+import java.util.HashMap
+import java.util.HashSet
+import java.util.LinkedHashSet
+import java.util.List
+import org.eclipse.emf.ecore.EClass
+import org.eclipse.emf.ecore.EObject
+import org.eclipse.emf.ecore.resource.Resource
+import org.eclipse.emf.ecore.util.EcoreUtil
+import org.eclipse.uml2.uml.Element
+import org.eclipse.uml2.uml.Model
+import org.eclipse.uml2.uml.Namespace
+import org.eclipse.uml2.uml.Operation
+import org.eclipse.uml2.uml.Package
+import org.eclipse.uml2.uml.Profile
+import org.eclipse.uml2.uml.Property
+import org.eclipse.uml2.uml.Stereotype
+import org.eclipse.uml2.uml.util.UMLUtil
+import org.eclipse.xtend.lib.annotations.Accessors
+
+import static extension fr.cea.modane.uml.ArcaneProfileExtensions.*
+
+/**
+ * Index des stéréotypes de l'ArcaneProfile appliqués aux éléments d'un modèle UML,
+ * construit en un seul parcours des applications de stéréotypes du modèle et des modèles
+ * qu'il importe. Les stéréotypes du profil sont recherchés une seule fois et les propriétés
+ * (Pty), fonctions (Func) et points d'entrée (EntryPoint) de chaque classe ou interface
+ * sont calculés une fois, dans l'ordre de ownedMembers.
+ * Comme pour Element.isStereotypeApplied, le stéréotype d'une application est retrouvé à
+ * partir de la définition de la version du profil appliquée (UMLUtil::getStereotype), qui
+ * n'est pas forcément la dernière : il est calculé une fois par eClass d'application.
+ */
+class ArcaneProfileIndex
+{
+	@Accessors(PUBLIC_GETTER) val Profile profile
+	@Accessors(PUBLIC_GETTER) val Stereotype variableSt
+	@Accessors(PUBLIC_GETTER) val Stereotype structSt
+	@Accessors(PUBLIC_GETTER) val Stereotype enumSt
+	@Accessors(PUBLIC_GETTER) val Stereotype enumLiteralSt
+	@Accessors(PUBLIC_GETTER) val Stereotype ptySt
+	@Accessors(PUBLIC_GETTER) val Stereotype interfSt
+	@Accessors(PUBLIC_GETTER) val Stereotype funcSt
+	@Accessors(PUBLIC_GETTER) val Stereotype entryPointSt
+	@Accessors(PUBLIC_GETTER) val Stereotype moduleSt
+	@Accessors(PUBLIC_GETTER) val Stereotype serviceSt
+	@Accessors(PUBLIC_GETTER) val Stereotype legacySt
+	@Accessors(PUBLIC_GETTER) val Stereotype itemFamilySt
+
+	val arcaneStereotypes = new HashSet<Stereotype>
+	/** Stéréotype de l'ArcaneProfile de chaque définition rencontrée, null pour les autres */
+	val stereotypesByDefinition = new HashMap<EClass, Stereotype>
+	val stereotypesByElement = new HashMap<Element, List<Stereotype>>
+	val ptiesByOwner = new HashMap<Namespace, List<Property>>
+	val funcsByOwner = new HashMap<Namespace, List<Operation>>
+	val entryPointsByOwner = new HashMap<Namespace, List<Operation>>
+
+	new(Model umlModel)
+	{
+		profile = umlModel.getAppliedProfile("ArcaneProfile")
+		variableSt = profile?.variableSt
+		structSt = profile?.structSt
+		enumSt = profile?.enumSt
+		enumLiteralSt = profile?.enumLiteralSt
+		ptySt = profile?.ptySt
+		interfSt = profile?.interfSt
+		funcSt = profile?.funcSt
+		entryPointSt = profile?.entryPointSt
+		moduleSt = profile?.moduleSt
+		serviceSt = profile?.serviceSt
+		legacySt = profile?.legacySt
+		itemFamilySt = profile?.itemFamilySt
+
+		for (st : #[variableSt, structSt, enumSt, enumLiteralSt, ptySt, interfSt, funcSt, entryPointSt, moduleSt, serviceSt, legacySt, itemFamilySt])
+			if (st !== null) arcaneStereotypes += st
+		if (!arcaneStereotypes.empty) index(umlModel)
+	}
+
+	/** Equivalent à Element.isStereotypeApplied pour les stéréotypes de l'ArcaneProfile */
+	def isApplied(Element it, Stereotype st)
+	{
+		val stereotypes = stereotypesByElement.get(it)
+		stereotypes !== null && stereotypes.contains(st)
+	}
+
+	/** Propriétés stéréotypées Pty dont la borne supérieure n'est pas 0 */
+	def List<Property> getOwnedPties(Namespace it) { ptiesByOwner.get(it) ?: #[] }
+	def List<Operation> getOwnedFuncs(Namespace it) { funcsByOwner.get(it) ?: #[] }
+	def List<Operation> getOwnedEntryPoints(Namespace it) { entryPointsByOwner.get(it) ?: #[] }
+
+	/**
+	 * Les applications de stéréotypes sont à la racine des ressources : il suffit
+	 * de parcourir les racines des ressources du modèle et des modèles importés,
+	 * sans interroger chaque élément du modèle.
+	 */
+	private def index(Model umlModel)
+	{
+		val owners = new LinkedHashSet<Namespace>
+		for (r : umlModel.modelResources)
+			for (application : r.contents)
+			{
+				val st = application.arcaneStereotype
+				val base = if (st === null) null else UMLUtil::getBaseElement(application)
+				if (base !== null)
+				{
+					stereotypesByElement.computeIfAbsent(base, [new ArrayList<Stereotype>(1)]) += st
+					if ((st === ptySt || st === funcSt || st === entryPointSt) && base.owner instanceof Namespace)
+						owners += base.owner as Namespace
+				}
+			}
+
+		for (owner : owners)
+		{
+			val pties = new ArrayList<Property>
+			val funcs = new ArrayList<Operation>
+			val entryPoints = new ArrayList<Operation>
+			for (m : owner.ownedMembers)
+			{
+				if (m instanceof Property && m.isApplied(ptySt) && (m as Property).upperBound != 0) pties += m as Property
+				if (m instanceof Operation && m.isApplied(funcSt)) funcs += m as Operation
+				if (m instanceof Operation && m.isApplied(entryPointSt)) entryPoints += m as Operation
+			}
+			if (!pties.empty) ptiesByOwner.put(owner, pties)
+			if (!funcs.empty) funcsByOwner.put(owner, funcs)
+			if (!entryPoints.empty) entryPointsByOwner.put(owner, entryPoints)
+		}
+	}
+
+	private def getArcaneStereotype(EObject application)
+	{
+		val definition = application.eClass
+		if (stereotypesByDefinition.containsKey(definition)) return stereotypesByDefinition.get(definition)
+		val st = UMLUtil::getStereotype(application)
+		val arcaneSt = if (arcaneStereotypes.contains(st)) st else null
+		stereotypesByDefinition.put(definition, arcaneSt)
+		return arcaneSt
+	}
+
+	/**
+	 * Ressource du modèle et ressources des modèles qu'il importe, directement ou non,
+	 * chargées en résolvant les références de ces seules ressources. Les profils et les
+	 * bibliothèques (pathmap, plugins) ne sont pas parcourus : ils ne contiennent pas
+	 * d'applications de stéréotypes et leurs références (métamodèles) ne sont pas chargées.
+	 */
+	private static def getModelResources(Model umlModel)
+	{
+		val resources = new LinkedHashSet<Resource>
+		val toResolve = new ArrayDeque<Resource>
+		toResolve += umlModel.eResource
+		while (!toResolve.empty)
+		{
+			val r = toResolve.removeFirst
+			if (resources.add(r) && r.resourceSet !== null)
+			{
+				EcoreUtil::resolveAll(r)
+				for (other : new ArrayList(r.resourceSet.resources))
+					if (!resources.contains(other) && other.importedModel) toResolve += other
+			}
+		}
+		return resources
+	}
+
+	private static def isImportedModel(Resource r)
+	{
+		val uri = r.URI
+		uri !== null && uri.scheme != 'pathmap' && !uri.platformPlugin
+			&& r.contents.exists[c | c instanceof Package && !(c instanceof Profile)]
+	}
+}
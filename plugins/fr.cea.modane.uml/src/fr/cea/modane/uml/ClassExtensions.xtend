@@ -16,46 +16,43 @@ import fr.cea.modane.modane.VariableMultiplicity
 import org.eclipse.emf.ecore.EObject
 import org.eclipse.uml2.uml.Class
 import org.eclipse.uml2.uml.EnumerationLiteral
-import org.eclipse.uml2.uml.Profile
-import org.eclipse.uml2.uml.Property
 import org.eclipse.uml2.uml.Stereotype
 
-import static extension fr.cea.modane.uml.ArcaneProfileExtensions.*
 import static extension fr.cea.modane.uml.EObjectExtensions.*
 
 class ClassExtensions 
 {
-	Profile profile
+	ArcaneProfileIndex index
 	
-	new (Profile arcaneProfile)
+	new (ArcaneProfileIndex arcaneProfileIndex)
 	{
-		this.profile = arcaneProfile
+		this.index = arcaneProfileIndex
 	}
 	
-	def getPties(Class it) { ownedMembers.filter(m | m.isStereotypeApplied(profile.ptySt)).filter(x | (x as Property).upperBound != 0) }
-	def getEntryPoints(Class it) { ownedOperations.filter(o | o.isStereotypeApplied(profile.entryPointSt)) }
-	def getFuncs(Class it) { ownedOperations.filter(o | o.isStereotypeApplied(profile.funcSt)) }
-	def getParentStructs(Class it) { parents.filter(s | s.isStereotypeApplied(profile.structSt)) }
+	def getPties(Class it) { index.getOwnedPties(it) }
+	def getEntryPoints(Class it) { index.getOwnedEntryPoints(it) }
+	def getFuncs(Class it) { index.getOwnedFuncs(it) }
+	def getParentStructs(Class it) { parents.filter(s | index.isApplied(s, index.structSt)) }
 	
-	def getVarDump(Class it) { getValue(profile.variableSt, "dump") as Boolean }
-	def getVarExecDep(Class it) { getValue(profile.variableSt, "executionDepend") as Boolean }
-	def getVarNeedSync(Class it) { getValue(profile.variableSt, "needSync") as Boolean }
-	def getVarRestore(Class it) { getValue(profile.variableSt, "restore") as Boolean }
+	def getVarDump(Class it) { getValue(index.variableSt, "dump") as Boolean }
+	def getVarExecDep(Class it) { getValue(index.variableSt, "executionDepend") as Boolean }
+	def getVarNeedSync(Class it) { getValue(index.variableSt, "needSync") as Boolean }
+	def getVarRestore(Class it) { getValue(index.variableSt, "restore") as Boolean }
 	
 	def getVarMult(Class it)
 	{
-		val umlMult = getValue(profile.variableSt, "multiplicity") as EnumerationLiteral
+		val umlMult = getValue(index.variableSt, "multiplicity") as EnumerationLiteral
 		VariableMultiplicity::getByName(umlMult.name)
 	}
 	
 	def getVarSupport(Class it)
 	{
-		getSupport(profile.variableSt)	
+		getSupport(index.variableSt)	
 	}
 	
 	def getVarItemFamily(Class it)
 	{
-		val family = getValue(profile.variableSt, "family") as EObject
+		val family = getValue(index.variableSt, "family") as EObject
 		if (family === null)
 			null
 		else
@@ -64,13 +61,13 @@ class ClassExtensions
 
 	def getVarType(Class it)
 	{	
-		val umlType = getValue(profile.variableSt, "type") as EObject
+		val umlType = getValue(index.variableSt, "type") as EObject
 		SimpleType::getByName(umlType.toUmlPrimitiveType.name)
 	}
 
 	def getItemFamilySupport(Class it)
 	{
-		getSupport(profile.itemFamilySt)
+		getSupport(index.itemFamilySt)
 	}
 	
 	private def getSupport(Class it, Stereotype s)
@@ -82,15 +79,15 @@ class ClassExtensions
 	
 	def getServiceType(Class it)
 	{
-		val type = getValue(profile.serviceSt, "type") as EnumerationLiteral
+		val type = getValue(index.serviceSt, "type") as EnumerationLiteral
 		ServiceType::getByName(type.name.toLowerCase)
 	}
 	
 	def isSingleton(Class it)
 	{
-		getValue(profile.serviceSt, "singleton") as Boolean
+		getValue(index.serviceSt, "singleton") as Boolean
 	}
 	
-	def getLegacyNamespace(Class it) { getValue(profile.legacySt, "originNamespace") as String }
-	def getLegacyFile(Class it) { getValue(profile.legacySt, "file") as String }
+	def getLegacyNamespace(Class it) { getValue(index.legacySt, "originNamespace") as String }
+	def getLegacyFile(Class it) { getValue(index.legacySt, "file") as String }
 }
\ No newline at end of file
@@ -10,22 +10,19 @@
 package fr.cea.modane.uml
 
 import org.eclipse.uml2.uml.EnumerationLiteral
-import org.eclipse.uml2.uml.Profile
-
-import static extension fr.cea.modane.uml.ArcaneProfileExtensions.*
 
 class EnumerationLiteralExtensions 
 {
-	Profile profile
+	ArcaneProfileIndex index
 	
-	new (Profile arcaneProfile)
+	new (ArcaneProfileIndex arcaneProfileIndex)
 	{
-		this.profile = arcaneProfile
+		this.index = arcaneProfileIndex
 	}
 
 	def getValue(EnumerationLiteral it) 
 	{ 
-		val value = getValue(profile.enumLiteralSt, "value")
+		val value = getValue(index.enumLiteralSt, "value")
 		if (value === null || (value as String).nullOrEmpty) ''
 		else value as String
 	}
@@ -10,21 +10,17 @@
 package fr.cea.modane.uml
 
 import org.eclipse.uml2.uml.Interface
-import org.eclipse.uml2.uml.Profile
-import org.eclipse.uml2.uml.Property
-
-import static extension fr.cea.modane.uml.ArcaneProfileExtensions.*
 
 class InterfaceExtensions 
 {
-	Profile profile
+	ArcaneProfileIndex index
 	
-	new (Profile arcaneProfile)
+	new (ArcaneProfileIndex arcaneProfileIndex)
 	{
-		this.profile = arcaneProfile
+		this.index = arcaneProfileIndex
 	}
 	
-	def getPties(Interface it) { ownedMembers.filter(m | m.isStereotypeApplied(profile.ptySt)).filter(x | (x as Property).upperBound != 0) }
-	def getFuncs(Interface it) { ownedOperations.filter(o | o.isStereotypeApplied(profile.funcSt)) }
-	def getParentInterfaces(Interface it) { parents.filter(c | c.isStereotypeApplied(profile.interfSt)) }
+	def getPties(Interface it) { index.getOwnedPties(it) }
+	def getFuncs(Interface it) { index.getOwnedFuncs(it) }
+	def getParentInterfaces(Interface it) { parents.filter(c | index.isApplied(c, index.interfSt)) }
 }
\ No newline at end of file
@@ -17,35 +17,33 @@ import org.eclipse.emf.ecore.EObject
 import org.eclipse.uml2.uml.EnumerationLiteral
 import org.eclipse.uml2.uml.Operation
 import org.eclipse.uml2.uml.ParameterDirectionKind
-import org.eclipse.uml2.uml.Profile
 import org.eclipse.uml2.uml.Stereotype
 
-import static extension fr.cea.modane.uml.ArcaneProfileExtensions.*
 import static extension fr.cea.modane.uml.EObjectExtensions.*
 
 class OperationExtensions 
 {
-	Profile profile
+	ArcaneProfileIndex index
 	
-	new (Profile arcaneProfile)
+	new (ArcaneProfileIndex arcaneProfileIndex)
 	{
-		this.profile = arcaneProfile
+		this.index = arcaneProfileIndex
 	}
 	
-	def getEpInVars(Operation it) { getInVars(profile.entryPointSt) }
-	def getEpOutVars(Operation it) { getOutVars(profile.entryPointSt) }
-	def getEpInNotOutVars(Operation it) { getInNotOutVars(profile.entryPointSt) }
-	def getEpCalledFuncs(Operation it) { getCalledFuncs(profile.entryPointSt) }
+	def getEpInVars(Operation it) { getInVars(index.entryPointSt) }
+	def getEpOutVars(Operation it) { getOutVars(index.entryPointSt) }
+	def getEpInNotOutVars(Operation it) { getInNotOutVars(index.entryPointSt) }
+	def getEpCalledFuncs(Operation it) { getCalledFuncs(index.entryPointSt) }
 
 	def getEpLocation(Operation it) 
 	{ 
-		val umlLocation = getValue(profile.entryPointSt, "location") as EnumerationLiteral
+		val umlLocation = getValue(index.entryPointSt, "location") as EnumerationLiteral
 		EntryPointLocation::getByName(umlLocation.name)
 	}
 
 	def getEpAutoLoad(Operation it) 
 	{ 
-		val umlAutoLoad = getValue(profile.entryPointSt, "autoLoad") as EnumerationLiteral
+		val umlAutoLoad = getValue(index.entryPointSt, "autoLoad") as EnumerationLiteral
 		switch (umlAutoLoad.name)
 		{
 			case 'Begin' : EntryPointAutoLoad::AUTO_LOAD_BEGIN
@@ -54,20 +52,20 @@ class OperationExtensions
 		}
 	}
 	
-	def getFuncInVars(Operation it) { getInVars(profile.funcSt) }
-	def getFuncOutVars(Operation it) { getOutVars(profile.funcSt) }
-	def getFuncInNotOutVars(Operation it) { getInNotOutVars(profile.funcSt) }
-	def getFuncCalledFuncs(Operation it) { getCalledFuncs(profile.funcSt) }
-	def isFuncParallel(Operation it) { getValue(profile.funcSt, "parallel") as Boolean }
-	def isFuncConst(Operation it) { getValue(profile.funcSt, "const") as Boolean }
-	private def isFuncItemTypeSpecialized(Operation it) { getValue(profile.funcSt, "itemTypeSpecialized") as Boolean }
+	def getFuncInVars(Operation it) { getInVars(index.funcSt) }
+	def getFuncOutVars(Operation it) { getOutVars(index.funcSt) }
+	def getFuncInNotOutVars(Operation it) { getInNotOutVars(index.funcSt) }
+	def getFuncCalledFuncs(Operation it) { getCalledFuncs(index.funcSt) }
+	def isFuncParallel(Operation it) { getValue(index.funcSt, "parallel") as Boolean }
+	def isFuncConst(Operation it) { getValue(index.funcSt, "const") as Boolean }
+	private def isFuncItemTypeSpecialized(Operation it) { getValue(index.funcSt, "itemTypeSpecialized") as Boolean }
 	def getFuncSupport(Operation it)
 	{
 		if (isFuncItemTypeSpecialized)
 			FunctionItemType::ITEM_TYPE_SPECIALIZED
 		else
 		{	
-			val umlSupport =getValue(profile.funcSt, "support") as EObject
+			val umlSupport =getValue(index.funcSt, "support") as EObject
 			if (umlSupport === null) FunctionItemType::NO_ITEM
 			else FunctionItemType::getByName(umlSupport.toUmlPrimitiveType.name) 
 		}
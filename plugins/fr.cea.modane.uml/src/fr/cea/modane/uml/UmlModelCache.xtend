@@ -0,0 +1,190 @@
+/*******************************************************************************
+ * Copyright (c) 2022 CEA
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * Contributors: see AUTHORS file
+ *******************************************************************************/
+package fr.cea.modane.uml
+
+import fr.cea.modane.generator.ModaneGeneratorMessageDispatcher
+import fr.cea.modane.generator.ModaneGeneratorMessageDispatcher.MessageType
+import java.io.File
+import java.io.FileInputStream
+import java.io.FileOutputStream
+import java.math.BigInteger
+import java.nio.charset.StandardCharsets
+import java.nio.file.Files
+import java.nio.file.StandardCopyOption
+import java.security.MessageDigest
+import java.util.ArrayList
+import java.util.HashMap
+import org.eclipse.emf.common.util.URI
+import org.eclipse.emf.ecore.resource.Resource
+import org.eclipse.emf.ecore.resource.ResourceSet
+import org.eclipse.emf.ecore.xmi.XMLResource
+
+/**
+ * Cache disque des ressources UML au format binaire EMF, bien plus rapide à relire que le XMI.
+ * Une ressource est identifiée par l'empreinte (SHA-256) de son contenu : un profil inchangé
+ * est donc partagé par tous les modèles qui l'utilisent. Pour un modèle, la liste des autres
+ * ressources chargées avec lui (profils...) est conservée afin de les charger depuis le cache
+ * avant le modèle lui-même. Seules les ressources chargées par la lecture XMI sont enregistrées :
+ * les autres restent chargées à la demande, comme sans cache. Les fichiers du cache sont écrits
+ * dans un fichier temporaire puis renommés : plusieurs générations peuvent partager le même
+ * répertoire. Une entrée illisible est supprimée, signalée par le dispatcher et le modèle est
+ * rechargé depuis le XMI.
+ * Les empreintes sont calculées une fois par instance : une instance par chargement.
+ */
+class UmlModelCache
+{
+	static val FormatVersion = 'modane-uml-cache-1'
+	static val BinaryExtension = '.bin'
+	static val ResourcesExtension = '.resources'
+
+	val File cacheDir
+	val ModaneGeneratorMessageDispatcher dispatcher
+	val hashes = new HashMap<URI, String>
+
+	/** Le dispatcher des avertissements peut être null */
+	new(File cacheDir, ModaneGeneratorMessageDispatcher dispatcher)
+	{
+		this.cacheDir = cacheDir
+		this.dispatcher = dispatcher
+		cacheDir.mkdirs
+	}
+
+	/**
+	 * Charge la ressource et les ressources dont elle dépend depuis le cache.
+	 * Retourne null si la ressource n'est pas dans le cache ou si le cache est illisible.
+	 */
+	def Resource load(ResourceSet resourceSet, URI uri)
+	{
+		val hash = resourceSet.getContentHash(uri)
+		val binaryFile = getBinaryFile(hash)
+		val resourcesFile = new File(cacheDir, hash + ResourcesExtension)
+		if (!binaryFile.exists || !resourcesFile.exists) return null
+
+		// fichier du cache en cours de lecture, supprimé s'il est illisible
+		var entry = resourcesFile
+		try
+		{
+			for (dependency : Files::readAllLines(resourcesFile.toPath, StandardCharsets::UTF_8).filter[!empty])
+			{
+				val dependencyURI = URI::createURI(dependency)
+				if (resourceSet.getResource(dependencyURI, false) === null)
+				{
+					val dependencyFile = getBinaryFile(resourceSet.getContentHash(dependencyURI))
+					if (dependencyFile.exists)
+					{
+						entry = dependencyFile
+						resourceSet.loadBinary(dependencyURI, dependencyFile)
+					}
+					else save(resourceSet.getResource(dependencyURI, true))
+				}
+			}
+			entry = binaryFile
+			return resourceSet.loadBinary(uri, binaryFile)
+		}
+		catch (Exception e)
+		{
+			for (r : new ArrayList(resourceSet.resources)) r.unload
+			resourceSet.resources.clear
+			entry.delete
+			dispatcher?.post(MessageType.Warning, "UML cache entry " + entry + " can not be read and is deleted: " + e.class.simpleName + ": " + e.message)
+			return null
+		}
+	}
+
+	/**
+	 * Enregistre dans le cache les ressources chargées dans le ResourceSet, sans résoudre
+	 * les références pour ne pas charger d'autres ressources, et la liste des dépendances
+	 * de la ressource uri.
+	 */
+	def save(ResourceSet resourceSet, URI uri)
+	{
+		val dependencies = new StringBuilder
+		for (r : new ArrayList(resourceSet.resources).filter[loaded])
+		{
+			save(r)
+			if (r.URI != uri) dependencies.append(r.URI.toString).append('\n')
+		}
+		val hash = resourceSet.getContentHash(uri)
+		writeAtomically(new File(cacheDir, hash + ResourcesExtension)) [f |
+			Files::write(f.toPath, dependencies.toString.getBytes(StandardCharsets::UTF_8))
+		]
+	}
+
+	private def save(Resource r)
+	{
+		val binaryFile = getBinaryFile(r.resourceSet.getContentHash(r.URI))
+		if (binaryFile.exists) return
+		writeAtomically(binaryFile) [f |
+			val out = new FileOutputStream(f)
+			try r.save(out, binaryOptions) finally out.close
+		]
+	}
+
+	private def loadBinary(ResourceSet resourceSet, URI uri, File binaryFile)
+	{
+		val resource = resourceSet.createResource(uri)
+		val options = new HashMap<Object, Object>(resourceSet.loadOptions)
+		options.putAll(binaryOptions)
+		val in = new FileInputStream(binaryFile)
+		try resource.load(in, options) finally in.close
+		return resource
+	}
+
+	private def getContentHash(ResourceSet resourceSet, URI uri)
+	{
+		var hash = hashes.get(uri)
+		if (hash === null)
+		{
+			hash = resourceSet.computeContentHash(uri)
+			hashes.put(uri, hash)
+		}
+		return hash
+	}
+
+	private def computeContentHash(ResourceSet resourceSet, URI uri)
+	{
+		val digest = MessageDigest::getInstance('SHA-256')
+		digest.update(FormatVersion.getBytes(StandardCharsets::UTF_8))
+		val in = resourceSet.URIConverter.createInputStream(uri)
+		try
+		{
+			val buffer = newByteArrayOfSize(64 * 1024)
+			var n = in.read(buffer)
+			while (n != -1)
+			{
+				digest.update(buffer, 0, n)
+				n = in.read(buffer)
+			}
+		}
+		finally
+		{
+			in.close
+		}
+		new BigInteger(1, digest.digest).toString(16)
+	}
+
+	private def getBinaryFile(String hash) { new File(cacheDir, hash + BinaryExtension) }
+
+	private def writeAtomically(File file, (File)=>void write)
+	{
+		val tmp = File::createTempFile(file.name, '.tmp', cacheDir)
+		try
+		{
+			write.apply(tmp)
+			Files::move(tmp.toPath, file.toPath, StandardCopyOption::REPLACE_EXISTING, StandardCopyOption::ATOMIC_MOVE)
+		}
+		finally
+		{
+			tmp.delete
+		}
+	}
+
+	private static def getBinaryOptions() { #{XMLResource::OPTION_BINARY -> true} }
+}
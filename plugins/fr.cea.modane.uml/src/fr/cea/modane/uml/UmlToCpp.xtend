@@ -10,11 +10,19 @@
 package fr.cea.modane.uml
 
 import com.google.inject.Inject
+import com.google.inject.Injector
 import fr.cea.modane.ModaneStandaloneSetupGenerated
+import fr.cea.modane.cycles.ElementDependencyGraph
+import fr.cea.modane.cycles.ElementDependencyGraph.ExportFormat
 import fr.cea.modane.generator.ModaneGeneratorMessageDispatcher.MessageType
 import fr.cea.modane.generator.StandaloneGenerator
+import fr.cea.modane.modane.ModaneModel
+import java.io.File
+import java.util.List
 import org.eclipse.emf.common.util.URI
+import org.eclipse.emf.ecore.resource.Resource
 import org.eclipse.uml2.uml.Model
+import org.eclipse.xtend.lib.annotations.Accessors
 
 /**
  * Cette classe est utilisée par les tests unitaires et l'IHM.
@@ -26,15 +34,35 @@ class UmlToCpp
 	@Inject StandaloneGenerator generator
 	@Inject UmlToModane umlToModane
 
+	/** Répertoire du cache binaire des modèles UML (cf. UmlModelCache), pas de cache si null */
+	@Accessors File umlCacheDir
+
+	/**
+	 * Format d'export du graphe de dépendances entre éléments (cf. ElementDependencyGraph),
+	 * écrit dans le répertoire de sortie sous le nom <modèle UML>.dependencies.<format>.
+	 * Pas d'export si null.
+	 */
+	@Accessors ExportFormat dependencyGraphFormat
+
 	def static createInstance()
 	{
-		val injector = new ModaneStandaloneSetupGenerated().createInjectorAndDoEMFRegistration
+		createInstance(createInjector)
+	}
+
+	/** L'injecteur peut être partagé par plusieurs instances, éventuellement utilisées en parallèle */
+	def static createInstance(Injector injector)
+	{
 		injector.getInstance(UmlToCpp)
 	}
 
+	def static createInjector()
+	{
+		new ModaneStandaloneSetupGenerated().createInjectorAndDoEMFRegistration
+	}
+
 	def readModel(URI umlFileURI)
 	{
-		UmlUtils::readUmlModel(umlFileURI)
+		UmlUtils::readUmlModel(umlFileURI, messageDispatcher, umlCacheDir)
 	}
 
 	def getMessageDispatcher()
@@ -42,6 +70,23 @@ class UmlToCpp
 		generator.messageDispatcher
 	}
 
+	def setIncremental(boolean incremental)
+	{
+		generator.incremental = incremental
+	}
+
+	/** Nombre de threads de génération des éléments d'un modèle (cf. StandaloneGenerator) */
+	def setNbThreads(int nbThreads)
+	{
+		generator.nbThreads = nbThreads
+	}
+
+	/** Nombre de threads d'écriture des fichiers générés, 0 pour écrire depuis la génération */
+	def setNbWriterThreads(int nbWriterThreads)
+	{
+		generator.nbWriterThreads = nbWriterThreads
+	}
+
 	def generate(Model umlModel, String absoluteOutputPath, String packagePrefix, String packageToGenerate, boolean generateCMakeLists, boolean writeModaneFiles)
 	{
 		val startTime = System.currentTimeMillis
@@ -51,6 +96,10 @@ class UmlToCpp
 		val afterConvertionTime = System.currentTimeMillis
 		messageDispatcher.post(MessageType.Exec, "UML to Modane model transformation ended in " + (afterConvertionTime-startTime)/1000.0 + "s")
 
+		// avant la génération, qui peut compléter les modèles (services par défaut)
+		if (dependencyGraphFormat !== null)
+			exportDependencyGraph(resources, new File(absoluteOutputPath, umlModel.name + '.dependencies.' + ElementDependencyGraph::getFileExtension(dependencyGraphFormat)))
+
 		messageDispatcher.post(MessageType.Exec, "Starting code generation")
 		generator.generate(resources, absoluteOutputPath, packageToGenerate, generateCMakeLists)
 		val afterGenerationTime = System.currentTimeMillis
@@ -58,4 +107,12 @@ class UmlToCpp
 
 		messageDispatcher.post(MessageType.Exec, "Total time: " + (afterGenerationTime-startTime)/1000.0 + "s");
 	}
+
+	private def exportDependencyGraph(List<Resource> resources, File file)
+	{
+		val graph = new ElementDependencyGraph(resources.map[contents].flatten.filter(ModaneModel))
+		graph.export(file, dependencyGraphFormat)
+		messageDispatcher.post(MessageType.Exec, "Dependency graph written: " + file + " (" + graph.nbNodes + " nodes, "
+			+ graph.nbEdges + " edges, " + graph.nbComponents + " strongly connected components)")
+	}
 }
\ No newline at end of file
@@ -51,14 +51,12 @@ import org.eclipse.uml2.uml.Package
 import org.eclipse.uml2.uml.Parameter
 import org.eclipse.uml2.uml.ParameterDirectionKind
 import org.eclipse.uml2.uml.PrimitiveType
-import org.eclipse.uml2.uml.Profile
 import org.eclipse.uml2.uml.Property
 import org.eclipse.uml2.uml.Stereotype
 import org.eclipse.uml2.uml.Type
 import org.eclipse.xtext.resource.SaveOptions
 
 import static extension fr.cea.modane.ModaneStringExtensions.*
-import static extension fr.cea.modane.uml.ArcaneProfileExtensions.*
 import static extension fr.cea.modane.uml.EObjectExtensions.*
 import static extension fr.cea.modane.uml.ElementExtensions.*
 import static extension fr.cea.modane.uml.ModelMetricsExtensions.*
@@ -71,7 +69,7 @@ class UmlToModane
 	@Inject ResourceSet resourceSet
 	@Inject ModaneGeneratorMessageDispatcher dispatcher
 
-	Profile profile
+	ArcaneProfileIndex index
 	UserCategory defaultCategory
 
 	extension PackageExtensions pe
@@ -88,19 +86,19 @@ class UmlToModane
 
 	def readModel(URI umlFileURI)
 	{
-		UmlUtils::readUmlModel(umlFileURI)
+		UmlUtils::readUmlModel(umlFileURI, dispatcher)
 	}
 
 	def List<ModaneModel> createModaneModels(Model umlModel, String packagePrefix)
 	{
-		profile = umlModel.getAppliedProfile("ArcaneProfile")
+		index = new ArcaneProfileIndex(umlModel)
 		defaultCategory = ModaneFactory::eINSTANCE.createUserCategory => [name = "User" description = "Default category"]
 
 		pe = new PackageExtensions(packagePrefix)
-		ce = new ClassExtensions(profile)
-		ie = new InterfaceExtensions(profile)
-		oe = new OperationExtensions(profile)
-		ele = new EnumerationLiteralExtensions(profile)
+		ce = new ClassExtensions(index)
+		ie = new InterfaceExtensions(index)
+		oe = new OperationExtensions(index)
+		ele = new EnumerationLiteralExtensions(index)
 
 		val models = new ArrayList<ModaneModel>
 
@@ -178,14 +176,14 @@ class UmlToModane
 		for ( m : p.ownedMembers.filter[x | !x.name.nullOrEmpty].sortBy[x | x.name] )
 		{
 			// pas de creation des variables abtraites
-			if (m.isStereotypeApplied(profile.variableSt) && !(m as Class).abstract) elements += (m as Class).toVariable
-			else if (m.isStereotypeApplied(profile.enumSt)) elements += (m as org.eclipse.uml2.uml.Enumeration).toEnumeration
-			else if (m.isStereotypeApplied(profile.structSt)) elements += (m as Class).toStruct
-			else if (m.isStereotypeApplied(profile.interfSt)) elements += (m as org.eclipse.uml2.uml.Interface).toInterface
-			else if (m.isStereotypeApplied(profile.serviceSt)) elements += (m as Class).toService
-			else if (m.isStereotypeApplied(profile.moduleSt)) elements += (m as Class).toModule
-			else if (m.isStereotypeApplied(profile.legacySt)) elements += (m as Class).toLegacy
-			else if (m.isStereotypeApplied(profile.itemFamilySt)) elements += (m as Class).toItemFamily
+			if (index.isApplied(m, index.variableSt) && !(m as Class).abstract) elements += (m as Class).toVariable
+			else if (index.isApplied(m, index.enumSt)) elements += (m as org.eclipse.uml2.uml.Enumeration).toEnumeration
+			else if (index.isApplied(m, index.structSt)) elements += (m as Class).toStruct
+			else if (index.isApplied(m, index.interfSt)) elements += (m as org.eclipse.uml2.uml.Interface).toInterface
+			else if (index.isApplied(m, index.serviceSt)) elements += (m as Class).toService
+			else if (index.isApplied(m, index.moduleSt)) elements += (m as Class).toModule
+			else if (index.isApplied(m, index.legacySt)) elements += (m as Class).toLegacy
+			else if (index.isApplied(m, index.itemFamilySt)) elements += (m as Class).toItemFamily
 			// Les packages insérés par Magicdraw possèdent le stéréotype AuxiliaryResource
 			// alors que ceux qui nous intéressent ne sont pas stéréotypés.
 			else if (m instanceof Package && m.appliedStereotypes.empty) models += (m as Package).toModaneModel(models)
@@ -217,7 +215,7 @@ class UmlToModane
 		name = c.name
 		description = c.description
 		for (p : c.parentStructs) parents += (p as Class).toStruct
-		for (p : c.pties) properties += (p as Property).toPty
+		for (p : c.pties) properties += p.toPty
 	}
 
 	private def Legacy create ModaneFactory::eINSTANCE.createLegacy toLegacy(Class c)
@@ -244,8 +242,8 @@ class UmlToModane
 		}
 		if (p.defaultValue !== null) defaultValue = p.defaultValue.stringValue.replaceAll('::','.')
 		type = p.type.toArgType
-		namefr = p.getNameFr(profile.ptySt)
-		if (p.isUserEnabled(profile.ptySt)) categories += defaultCategory
+		namefr = p.getNameFr(index.ptySt)
+		if (p.isUserEnabled(index.ptySt)) categories += defaultCategory
 	}
 
 	private def ArgDefinition create ModaneFactory::eINSTANCE.createArgDefinition toArgument(Parameter p)
@@ -263,7 +261,7 @@ class UmlToModane
 	{
 		name = e.name
 		description = e.description
-		for (l : e.ownedLiterals.filter(x | x.isStereotypeApplied(profile.enumLiteralSt))) literals += l.toEnumerationLiteral
+		for (l : e.ownedLiterals.filter(x | index.isApplied(x, index.enumLiteralSt))) literals += l.toEnumerationLiteral
 	}
 
 	private def EnumerationLiteral create ModaneFactory::eINSTANCE.createEnumerationLiteral toEnumerationLiteral(org.eclipse.uml2.uml.EnumerationLiteral l)
@@ -271,8 +269,8 @@ class UmlToModane
 		name = l.name
 		value = l.value
 		description = l.description
-		namefr = l.getNameFr(profile.enumLiteralSt)
-		if (l.isUserEnabled(profile.enumLiteralSt)) categories += defaultCategory
+		namefr = l.getNameFr(index.enumLiteralSt)
+		if (l.isUserEnabled(index.enumLiteralSt)) categories += defaultCategory
 	}
 
 	private def Interface create ModaneFactory::eINSTANCE.createInterface toInterface(org.eclipse.uml2.uml.Interface i)
@@ -280,19 +278,19 @@ class UmlToModane
 		name = i.name
 		description = i.description
 		for (p : i.parentInterfaces) parents += (p as org.eclipse.uml2.uml.Interface).toInterface
-		for (p : i.pties) properties += (p as Property).toPty
+		for (p : i.pties) properties += p.toPty
 		for (f : i.funcs) functions += f.toFunction
 	}
 
 	private def Module create ModaneFactory::eINSTANCE.createModule toModule(Class c)
 	{
-		init(it, c, profile.moduleSt)
+		init(it, c, index.moduleSt)
 		for (f : c.entryPoints) entryPoints += f.toEntryPoint
 	}
 
 	private def Service create ModaneFactory::eINSTANCE.createService toService(Class c)
 	{
-		init(it, c, profile.serviceSt)
+		init(it, c, index.serviceSt)
 		type = c.serviceType
 		singleton = c.isSingleton
 	}
@@ -304,7 +302,7 @@ class UmlToModane
 		description = c.description
 		if (c.isUserEnabled(s)) categories += defaultCategory
 		for (i : c.implementedInterfaces) interfaces += i.toInterface
-		for (p : c.pties) properties += (p as Property).toPty
+		for (p : c.pties) properties += p.toPty
 
 		// override fonctions et fonctions
 		for (f : c.funcs)
@@ -412,7 +410,7 @@ class UmlToModane
 			{
 				org.eclipse.uml2.uml.Enumeration : t.target = type.toEnumeration
 				org.eclipse.uml2.uml.Interface : t.target = type.toInterface
-				Class case type.appliedStereotypes.contains(profile.legacySt) : t.target = type.toLegacy
+				Class case index.isApplied(type, index.legacySt) : t.target = type.toLegacy
 				Class : t.target = type.toStruct
 			}
 			return t
@@ -9,23 +9,109 @@
  *******************************************************************************/
 package fr.cea.modane.uml
 
+import fr.cea.modane.generator.ModaneGeneratorMessageDispatcher
+import fr.cea.modane.generator.ModaneGeneratorMessageDispatcher.MessageType
+import java.io.BufferedInputStream
+import java.io.File
+import java.util.ArrayList
+import java.util.HashMap
+import java.util.Map
 import org.eclipse.emf.common.util.URI
+import org.eclipse.emf.ecore.resource.Resource
+import org.eclipse.emf.ecore.resource.impl.ExtensibleURIConverterImpl
+import org.eclipse.emf.ecore.resource.impl.ResourceImpl
 import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl
+import org.eclipse.emf.ecore.xmi.XMLResource
+import org.eclipse.emf.ecore.xmi.impl.XMLParserPoolImpl
 import org.eclipse.uml2.uml.Model
 import org.eclipse.uml2.uml.resource.UMLResource
 import org.eclipse.uml2.uml.resources.util.UMLResourcesUtil
 
 class UmlUtils
 {
+	/** Parseurs XML réutilisés d'un chargement à l'autre, y compris par des threads différents */
+	static val ParserPool = new XMLParserPoolImpl
+	static val LoadBufferSize = 1024 * 1024
+
 	static def Model readUmlModel(URI uri)
 	{
+		readUmlModel(uri, null, null)
+	}
+
+	static def Model readUmlModel(URI uri, ModaneGeneratorMessageDispatcher dispatcher)
+	{
+		readUmlModel(uri, dispatcher, null)
+	}
+
+	/**
+	 * Chargement du modèle et des profils qu'il utilise avec des options adaptées aux gros modèles :
+	 * parseurs XML partagés, résolution différée des IDREF, table des identifiants des objets,
+	 * lecture bufferisée. La durée du chargement et la variation du tas (approximative, sans GC)
+	 * sont transmises au dispatcher s'il n'est pas null.
+	 * Si cacheDir n'est pas null, les ressources sont relues depuis le cache binaire quand
+	 * leur contenu n'a pas changé et y sont enregistrées sinon (cf. UmlModelCache).
+	 */
+	static def Model readUmlModel(URI uri, ModaneGeneratorMessageDispatcher dispatcher, File cacheDir)
+	{
+		val startTime = System.currentTimeMillis
+		val runtime = Runtime::runtime
+		val startHeap = runtime.totalMemory - runtime.freeMemory
+
 		val resourceSet = new ResourceSetImpl
+		// le convertisseur doit être positionné avant l'initialisation qui y ajoute les URI des profils
+		resourceSet.URIConverter = new ExtensibleURIConverterImpl
+		{
+			override createInputStream(URI u, Map<?, ?> options)
+			{
+				new BufferedInputStream(super.createInputStream(u, options), LoadBufferSize)
+			}
+		}
 		UMLResourcesUtil::init(resourceSet)
-		resourceSet.resourceFactoryRegistry.extensionToFactoryMap.put(UMLResource.FILE_EXTENSION, UMLResource.Factory.INSTANCE)
+		val umlFactory = UMLResource.Factory.INSTANCE
+		val Resource.Factory factory = [u |
+			val resource = umlFactory.createResource(u)
+			(resource as ResourceImpl).intrinsicIDToEObjectMap = new HashMap
+			resource
+		]
+		resourceSet.resourceFactoryRegistry.extensionToFactoryMap.put(UMLResource.FILE_EXTENSION, factory)
+		resourceSet.loadOptions.putAll(loadOptions)
+
+		val cache = if (cacheDir === null) null else new UmlModelCache(cacheDir, dispatcher)
+		var resource = cache?.load(resourceSet, uri)
+		val fromCache = resource !== null
+		if (!fromCache)
+		{
+			// Demand load the resource for this file
+			resource = resourceSet.getResource(uri, true)
+			if (cache !== null)
+			{
+				try cache.save(resourceSet, uri)
+				catch (Exception e) dispatcher?.post(MessageType.Warning, "UML model can not be cached: " + e.message)
+			}
+		}
+		val model = resource.getContents().get(0) as Model
 
-		// Demand load the resource for this file
-		val resource = resourceSet.getResource(uri, true)
-		resource.getContents().get(0) as Model
+		if (dispatcher !== null)
+		{
+			val time = (System.currentTimeMillis - startTime) / 1000.0
+			val heap = (runtime.totalMemory - runtime.freeMemory - startHeap) / (1024 * 1024)
+			val origin = if (fromCache) ", from cache" else ""
+			dispatcher.post(MessageType.Exec, "UML model loaded in " + time + "s (" + resourceSet.resources.size + " resources" + origin + ", heap delta " + heap + " MB)")
+		}
+		return model
+	}
+
+	/** Options de chargement : les tables de correspondance sont propres à chaque ResourceSet */
+	private static def getLoadOptions()
+	{
+		val options = new HashMap<Object, Object>
+		options.put(XMLResource::OPTION_USE_PARSER_POOL, ParserPool)
+		options.put(XMLResource::OPTION_USE_XML_NAME_TO_FEATURE_MAP, new HashMap)
+		options.put(XMLResource::OPTION_USE_CACHED_LOOKUP_TABLE, new ArrayList)
+		options.put(XMLResource::OPTION_DEFER_IDREF_RESOLUTION, true)
+		options.put(XMLResource::OPTION_DEFER_ATTACHMENT, true)
+		options.put(XMLResource::OPTION_USE_DEPRECATED_METHODS, false)
+		return options
 	}
 
 //	static def Model readUmlModelFromJava(String modelFileName)
@@ -9,14 +9,11 @@
  *******************************************************************************/
 package fr.cea.modane
 
-import fr.cea.modane.Utils
 import fr.cea.modane.modane.Function
 import fr.cea.modane.modane.Interface
 import fr.cea.modane.modane.Module
 import fr.cea.modane.modane.Pty
-import fr.cea.modane.modane.Reference
 import fr.cea.modane.modane.Service
-import fr.cea.modane.modane.Struct
 import java.util.LinkedHashSet
 
 import static extension fr.cea.modane.PtyExtensions.*
@@ -36,31 +33,41 @@ class InterfaceExtensions
 		return false
 	}
 
-	/** Retourne l'ensemble des méthodes de l'interface et de ses parents */
+	/**
+	 * Retourne l'ensemble des méthodes de l'interface et de ses parents.
+	 * Les fermetures d'héritage sont mémorisées par le ModaneIndex : les ensembles
+	 * retournés sont partagés et ne doivent pas être modifiés.
+	 */
 	static def LinkedHashSet<Function> getAllFunctions(Interface it)
 	{
-		var allFunctions = new LinkedHashSet<Function>
-		for (p : parents) allFunctions.addAll(p.allFunctions)
-		allFunctions.addAll(functions)
-		return allFunctions
+		ModaneIndex::getClosure(it, 'allFunctions') [|
+			val allFunctions = new LinkedHashSet<Function>
+			for (p : parents) allFunctions.addAll(p.allFunctions)
+			allFunctions.addAll(functions)
+			allFunctions
+		]
 	}
 
 	/** Retourne l'ensemble des parents de l'interface en remontant tout l'arbre d'héritage */
 	static def LinkedHashSet<Interface> getAllInterfaces(Interface it)
 	{
-		var allInterfaces = new LinkedHashSet<Interface>
-		for (p : parents) allInterfaces.addAll(p.allInterfaces)
-		allInterfaces.addAll(parents)
-		return allInterfaces
+		ModaneIndex::getClosure(it, 'allInterfaces') [|
+			val allInterfaces = new LinkedHashSet<Interface>
+			for (p : parents) allInterfaces.addAll(p.allInterfaces)
+			allInterfaces.addAll(parents)
+			allInterfaces
+		]
 	}
 
 	/** Retourne l'ensemble des propriétés de l'interface et de ses parents */
 	static def LinkedHashSet<Pty> getAllProperties(Interface it)
 	{
-		var allProperties = new LinkedHashSet<Pty>
-		for (p : parents) allProperties.addAll(p.allProperties)
-		allProperties.addAll(properties)
-		return allProperties
+		ModaneIndex::getClosure(it, 'allProperties') [|
+			val allProperties = new LinkedHashSet<Pty>
+			for (p : parents) allProperties.addAll(p.allProperties)
+			allProperties.addAll(properties)
+			allProperties
+		]
 	}
 
 	/** Retourne vrai si l'interface à au moins une réalisation : module ou service */
@@ -69,37 +76,24 @@ class InterfaceExtensions
 	/** Retourne l'ensemble des services implémentant une interface */
 	static def LinkedHashSet<Service> getAllServiceRealisations(Interface it)
 	{
-		var allRealisations = new LinkedHashSet<Service>
-		for (s : Utils::getAllVisibleModaneElements(it).filter(t | t instanceof Service && (t as Service).interfaces.contains(it)))
-			allRealisations += s as Service
-		return allRealisations
+		val index = ModaneIndex::getIndex(it)
+		if (index === null) new LinkedHashSet<Service>
+		else index.getServiceRealisations(it)
 	}
 
 	/** Retourne l'ensemble des modules implémentant une interface */
 	static def LinkedHashSet<Module> getAllModuleRealisations(Interface it)
 	{
-		var allRealisations = new LinkedHashSet<Module>
-		for (s : Utils::getAllVisibleModaneElements(it).filter(t | t instanceof Module && (t as Module).interfaces.contains(it)))
-			allRealisations += s as Module
-		return allRealisations
+		val index = ModaneIndex::getIndex(it)
+		if (index === null) new LinkedHashSet<Module>
+		else index.getModuleRealisations(it)
 	}
 
-	/** Retourne vrai si l'interface est référencée par une structure */
+	/** Retourne vrai si l'interface est référencée par une propriété d'une structure */
 	static def isReferencedByAStruct(Interface it)
 	{
-		// recherche de toutes les structures visibles
-		val allStructs = Utils::getAllVisibleModaneElements(it).filter(s | s instanceof Struct)
-		for (elt : allStructs)
-			// parcours de toutes les propriétés des stuctures
-			for (p : (elt as Struct).properties)
-				// si la structure a une propriété qui est une référence sur l'interface => vrai
-				if (p.type instanceof Reference)
-				{
-					val ref = p.type as Reference
-					if (ref.target instanceof Interface && (ref.target as Interface) == it) 
-						return true
-				}
-		return false
+		val index = ModaneIndex::getIndex(it)
+		index !== null && index.isReferencedByAStruct(it)
 	}
 	
 	static def defaultImplementationName(Interface it) { name + 'Default'}
@@ -0,0 +1,267 @@
+/*******************************************************************************
+ * Copyright (c) 2022 CEA
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * Contributors: see AUTHORS file
+ *******************************************************************************/
+package fr.cea.modane
+
+import fr.cea.modane.modane.Interface
+import fr.cea.modane.modane.ModaneElement
+import fr.cea.modane.modane.ModaneModel
+import fr.cea.modane.modane.ModanePackage
+import fr.cea.modane.modane.Module
+import fr.cea.modane.modane.Reference
+import fr.cea.modane.modane.Service
+import fr.cea.modane.modane.Struct
+import java.util.ArrayList
+import java.util.Collection
+import java.util.Collections
+import java.util.HashMap
+import java.util.HashSet
+import java.util.LinkedHashSet
+import java.util.List
+import java.util.Set
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicLong
+import org.eclipse.emf.common.notify.Notification
+import org.eclipse.emf.common.notify.Notifier
+import org.eclipse.emf.ecore.EClass
+import org.eclipse.emf.ecore.EObject
+import org.eclipse.emf.ecore.EReference
+import org.eclipse.emf.ecore.EcorePackage
+import org.eclipse.emf.ecore.resource.Resource
+import org.eclipse.emf.ecore.resource.ResourceSet
+import org.eclipse.emf.ecore.util.EContentAdapter
+import org.eclipse.emf.ecore.util.EcoreUtil
+
+/**
+ * Index des éléments Modane d'un ResourceSet, attaché au ResourceSet comme adapter.
+ * Il est construit en un seul parcours du ResourceSet lors de la première interrogation
+ * et invalidé par les notifications de modification qui peuvent changer son contenu
+ * (ajout/suppression d'éléments, modification de références, nom de modèle).
+ * Il conserve aussi les fermetures d'héritage calculées (toutes les propriétés,
+ * fonctions, interfaces d'un élément), invalidées par les mêmes notifications.
+ * Seuls les objets Modane et les objets qui peuvent en contenir (projet Modane...) sont
+ * adaptés : les objets des ressources UML, aird ou des profils ne sont pas observés.
+ */
+class ModaneIndex extends EContentAdapter
+{
+	static val Lock = new Object
+	/** Pour chaque EClass rencontrée : ses instances peuvent-elles contenir des objets Modane ? */
+	static val ModaneContainerClasses = new ConcurrentHashMap<EClass, Boolean>
+
+	val ResourceSet resourceSet
+	volatile boolean upToDate = false
+	val allModaneElements = new ArrayList<ModaneElement>
+	val modaneElementsByModelName = new HashMap<String, List<ModaneElement>>
+	val serviceRealisations = new HashMap<Interface, LinkedHashSet<Service>>
+	val moduleRealisations = new HashMap<Interface, LinkedHashSet<Module>>
+	val structReferencedInterfaces = new HashSet<Interface>
+	val closures = new ConcurrentHashMap<Pair<EObject, String>, Object>
+	val modificationStamp = new AtomicLong
+	val contentStamp = new AtomicLong
+
+	/** Retourne l'index du ResourceSet de l'objet, null si l'objet n'est pas dans un ResourceSet */
+	static def getIndex(EObject context)
+	{
+		val resourceSet = context.eResource?.resourceSet
+		if (resourceSet === null) return null
+		synchronized (Lock)
+		{
+			var index = EcoreUtil::getExistingAdapter(resourceSet, ModaneIndex) as ModaneIndex
+			if (index === null)
+			{
+				index = new ModaneIndex(resourceSet)
+				resourceSet.eAdapters += index
+			}
+			return index
+		}
+	}
+
+	/**
+	 * Retourne la fermeture nommée name de l'objet, calculée par compute lors du premier appel
+	 * puis conservée jusqu'à la prochaine modification du ResourceSet.
+	 * La valeur retournée est partagée et ne doit pas être modifiée.
+	 */
+	static def <T> T getClosure(EObject context, String name, ()=>T compute)
+	{
+		val index = getIndex(context)
+		if (index === null) return compute.apply
+
+		val key = context -> name
+		val cached = index.closures.get(key)
+		if (cached !== null) return cached as T
+
+		// pas de computeIfAbsent : le calcul est récursif sur la même map
+		val stamp = index.modificationStamp.get
+		val closure = compute.apply
+		if (index.modificationStamp.get == stamp) index.closures.put(key, closure)
+		return closure
+	}
+
+	/**
+	 * Retourne un compteur incrémenté à chaque modification d'un objet Modane du ResourceSet
+	 * de l'objet (attributs compris) ou au chargement/déchargement d'une ressource Modane.
+	 * Permet d'invalider les caches d'une resource qui dépendent du contenu des autres.
+	 * Retourne -1 si l'objet n'est pas dans un ResourceSet.
+	 */
+	static def long getContentStamp(EObject context)
+	{
+		val index = getIndex(context)
+		if (index === null) -1L else index.contentStamp.get
+	}
+
+	private new(ResourceSet resourceSet)
+	{
+		this.resourceSet = resourceSet
+	}
+
+	def getAllModaneElements()
+	{
+		ensureUpToDate
+		Collections::unmodifiableList(allModaneElements)
+	}
+
+	def List<ModaneElement> getModaneElements(String modelName)
+	{
+		ensureUpToDate
+		val elements = modaneElementsByModelName.get(modelName)
+		if (elements === null) Collections::emptyList else Collections::unmodifiableList(elements)
+	}
+
+	def getServiceRealisations(Interface i)
+	{
+		ensureUpToDate
+		val realisations = serviceRealisations.get(i)
+		if (realisations === null) new LinkedHashSet<Service> else new LinkedHashSet<Service>(realisations)
+	}
+
+	def getModuleRealisations(Interface i)
+	{
+		ensureUpToDate
+		val realisations = moduleRealisations.get(i)
+		if (realisations === null) new LinkedHashSet<Module> else new LinkedHashSet<Module>(realisations)
+	}
+
+	def isReferencedByAStruct(Interface i)
+	{
+		ensureUpToDate
+		structReferencedInterfaces.contains(i)
+	}
+
+	override isAdapterForType(Object type) { type == ModaneIndex }
+
+	override notifyChanged(Notification notification)
+	{
+		super.notifyChanged(notification)
+		if (notification.touch) return
+		if (notification.affectsIndex)
+		{
+			upToDate = false
+			modificationStamp.incrementAndGet
+			closures.clear
+			contentStamp.incrementAndGet
+		}
+		// seuls les objets Modane et leurs conteneurs sont adaptés
+		else if (notification.notifier instanceof EObject)
+			contentStamp.incrementAndGet
+	}
+
+	/** Les proxies ne sont pas résolus par l'adapter pour ne pas charger de ressources */
+	override protected resolve() { false }
+
+	/** Les ressources sont adaptées mais seuls les objets qui peuvent contenir des objets Modane le sont */
+	override protected addAdapter(Notifier notifier)
+	{
+		if (!(notifier instanceof EObject) || (notifier as EObject).eClass.modaneContainer)
+			super.addAdapter(notifier)
+	}
+
+	private def affectsIndex(Notification it)
+	{
+		switch n : notifier
+		{
+			ResourceSet : oldValue.containsModaneObjects || newValue.containsModaneObjects
+			Resource : getFeatureID(Resource) == Resource::RESOURCE__CONTENTS && (oldValue.containsModaneObjects || newValue.containsModaneObjects)
+			EObject case n.eClass.EPackage == ModanePackage::eINSTANCE :
+				feature instanceof EReference || feature == ModanePackage::eINSTANCE.modaneModel_Name
+			// conteneurs des modèles (packages du projet...)
+			EObject : feature instanceof EReference && (feature as EReference).containment
+			default : false
+		}
+	}
+
+	/** Valeur d'une notification : ressource, objet ou liste contenant des objets Modane */
+	private static def boolean containsModaneObjects(Object value)
+	{
+		switch value
+		{
+			Resource : value.contents.exists[eClass.modaneContainer]
+			EObject : value.eClass.modaneContainer
+			Collection<?> : value.exists[containsModaneObjects]
+			default : false
+		}
+	}
+
+	private static def isModaneContainer(EClass c)
+	{
+		var result = ModaneContainerClasses.get(c)
+		if (result === null)
+		{
+			result = c.isModaneContainer(new HashSet<EClass>)
+			ModaneContainerClasses.put(c, result)
+		}
+		return result
+	}
+
+	private static def boolean isModaneContainer(EClass c, Set<EClass> visited)
+	{
+		if (c.EPackage == ModanePackage::eINSTANCE) return true
+		if (!visited.add(c)) return false
+		c.EAllContainments.exists[r | r.EReferenceType == EcorePackage::eINSTANCE.EObject || r.EReferenceType.isModaneContainer(visited)]
+	}
+
+	private def ensureUpToDate()
+	{
+		if (!upToDate)
+			synchronized (this)
+			{
+				if (!upToDate)
+				{
+					build
+					upToDate = true
+				}
+			}
+	}
+
+	private def build()
+	{
+		allModaneElements.clear
+		modaneElementsByModelName.clear
+		serviceRealisations.clear
+		moduleRealisations.clear
+		structReferencedInterfaces.clear
+
+		for (elt : resourceSet.allContents.filter(ModaneElement).toIterable)
+		{
+			allModaneElements += elt
+			val model = elt.eContainer
+			if (model instanceof ModaneModel)
+				modaneElementsByModelName.computeIfAbsent(model.name, [new ArrayList<ModaneElement>]) += elt
+
+			switch elt
+			{
+				Service : for (i : elt.interfaces) serviceRealisations.computeIfAbsent(i, [new LinkedHashSet<Service>]) += elt
+				Module : for (i : elt.interfaces) moduleRealisations.computeIfAbsent(i, [new LinkedHashSet<Module>]) += elt
+				Struct :
+					for (p : elt.properties)
+						if (p.type instanceof Reference && (p.type as Reference).target instanceof Interface)
+							structReferencedInterfaces += (p.type as Reference).target as Interface
+			}
+		}
+	}
+}
@@ -21,18 +21,22 @@ class ModuleExtensions
 {
 	static def LinkedHashSet<Pty> getAllProperties(Module it)
 	{
-		var allProperties = new LinkedHashSet<Pty>
-		for (i : interfaces) allProperties += i.allProperties
-		allProperties.addAll(properties)
-		return allProperties
+		ModaneIndex::getClosure(it, 'allProperties') [|
+			val allProperties = new LinkedHashSet<Pty>
+			for (i : interfaces) allProperties += i.allProperties
+			allProperties.addAll(properties)
+			allProperties
+		]
 	}
 
 	static def LinkedHashSet<Interface> getAllInterfaces(Module it)
 	{
-		var allInterfaces = new LinkedHashSet<Interface>
-		for (i : interfaces) allInterfaces.addAll(i.allInterfaces)
-		allInterfaces.addAll(interfaces)
-		return allInterfaces
+		ModaneIndex::getClosure(it, 'allInterfaces') [|
+			val allInterfaces = new LinkedHashSet<Interface>
+			for (i : interfaces) allInterfaces.addAll(i.allInterfaces)
+			allInterfaces.addAll(interfaces)
+			allInterfaces
+		]
 	}
 
 	static def getAllVariables(Module it)
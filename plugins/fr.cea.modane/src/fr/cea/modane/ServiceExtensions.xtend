@@ -21,25 +21,31 @@ class ServiceExtensions
 {
 	static def LinkedHashSet<Pty> getAllProperties(Service it)
 	{
-		val allProperties = new LinkedHashSet<Pty>
-		for (i : interfaces) allProperties += i.allProperties
-		allProperties.addAll(properties)
-		return allProperties
+		ModaneIndex::getClosure(it, 'allProperties') [|
+			val allProperties = new LinkedHashSet<Pty>
+			for (i : interfaces) allProperties += i.allProperties
+			allProperties.addAll(properties)
+			allProperties
+		]
 	}
 
 	static def LinkedHashSet<Interface> getAllInterfaces(Service it)
 	{
-		val allInterfaces = new LinkedHashSet<Interface>
-		for (i : interfaces) allInterfaces.addAll(i.allInterfaces)
-		allInterfaces.addAll(interfaces)
-		return allInterfaces
+		ModaneIndex::getClosure(it, 'allInterfaces') [|
+			val allInterfaces = new LinkedHashSet<Interface>
+			for (i : interfaces) allInterfaces.addAll(i.allInterfaces)
+			allInterfaces.addAll(interfaces)
+			allInterfaces
+		]
 	}
 
 	static def LinkedHashSet<Interface> getParentInterfaces(Service it)
 	{
-		val parentInterfaces = new LinkedHashSet<Interface>
-		for (i : interfaces) parentInterfaces.addAll(i.allInterfaces)
-		return parentInterfaces
+		ModaneIndex::getClosure(it, 'parentInterfaces') [|
+			val parentInterfaces = new LinkedHashSet<Interface>
+			for (i : interfaces) parentInterfaces.addAll(i.allInterfaces)
+			parentInterfaces
+		]
 	}
 
 	static def getAllVariables(Service it)
@@ -17,9 +17,11 @@ class StructExtensions
 {
 	static def LinkedHashSet<Pty> getAllProperties(Struct it) 
 	{
-		val result = new LinkedHashSet<Pty>
-		for (p : parents) result.addAll(p.allProperties)
-		result.addAll(properties)
-		return result
+		ModaneIndex::getClosure(it, 'allProperties') [|
+			val result = new LinkedHashSet<Pty>
+			for (p : parents) result.addAll(p.allProperties)
+			result.addAll(properties)
+			result
+		]
 	}	
 }
\ No newline at end of file
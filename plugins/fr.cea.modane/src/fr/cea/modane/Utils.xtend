@@ -83,9 +83,10 @@ class Utils
 		  l == EntryPointLocation::START_INIT )
 	}
 
-	static def getAllVisibleModaneElements(EObject it)
+	static def Iterable<ModaneElement> getAllVisibleModaneElements(EObject it)
 	{
-		eResource?.resourceSet.allContents.filter[x | x instanceof ModaneElement].toIterable
+		val index = ModaneIndex::getIndex(it)
+		if (index === null) #[] else index.allModaneElements
 	}
 
 	static def Collection<Interface> getAllInterfaces(OverrideFunction it)
@@ -106,7 +107,7 @@ class Utils
 		return result.toString()
 	}
 
-	private static def getScopeElements(IScopeProvider scopeProvider, EObject context)
+	static def getScopeElements(IScopeProvider scopeProvider, EObject context)
 	{
 		if (scopeProvider === null) throw new AssertionError("** Scope provider is null !")
 		val scope = scopeProvider.getScope(context, ModanePackage::eINSTANCE.modaneModel_Elements)
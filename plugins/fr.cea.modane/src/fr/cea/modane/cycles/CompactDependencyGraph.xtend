@@ -0,0 +1,250 @@
+/*******************************************************************************
+ * Copyright (c) 2022 CEA
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * Contributors: see AUTHORS file
+ *******************************************************************************/
+package fr.cea.modane.cycles
+
+import java.lang.ref.WeakReference
+import java.util.ArrayList
+import java.util.Arrays
+import java.util.Collections
+import java.util.HashMap
+import java.util.List
+import org.eclipse.emf.common.util.URI
+import org.eclipse.emf.ecore.EReference
+import org.eclipse.emf.ecore.resource.ResourceSet
+
+/**
+ * Implémentation compacte de l'interface DependencyGraph.
+ * Les packages sont identifiés par des entiers, les arcs sont stockés en tableaux
+ * d'entiers (liste d'adjacence compressée construite à la première interrogation)
+ * avec un compteur de dépendances par arc.
+ * Les DependencyInfo ne sont pas conservées : seuls l'URI de la ressource et le
+ * fragment des objets source et cible sont mémorisés. Les DependencyInfo d'un arc
+ * sont reconstruites à la demande à partir du ResourceSet des modèles, qui n'est
+ * pas retenu par le graphe.
+ */
+class CompactDependencyGraph implements MutableDependencyGraph
+{
+	// packages
+	val packageNames = new ArrayList<String>
+	val packageIds = new HashMap<String, Integer>
+
+	// arcs, identifiés par leur ordre de création
+	val edgeIds = new HashMap<Long, Integer>
+	val edgeSources = new IntBuffer
+	val edgeTargets = new IntBuffer
+	val edgeCounts = new IntBuffer
+	val edgeFirstDependencies = new IntBuffer
+	val edgeLastDependencies = new IntBuffer
+
+	// dépendances, chaînées par arc dans l'ordre d'ajout
+	val resourceUris = new ArrayList<URI>
+	val resourceIds = new HashMap<URI, Integer>
+	val references = new ArrayList<EReference>
+	val referenceIds = new HashMap<EReference, Integer>
+	val sourceResources = new IntBuffer
+	val sourceFragments = new ArrayList<String>
+	val targetResources = new IntBuffer
+	val targetFragments = new ArrayList<String>
+	val dependencyReferences = new IntBuffer
+	val dependencyIndexes = new IntBuffer
+	val nextDependencies = new IntBuffer
+	WeakReference<ResourceSet> resourceSet
+
+	// liste d'adjacence compressée : les successeurs de p sont adjacency[offsets[p]..offsets[p+1][
+	volatile int[] offsets
+	int[] adjacency
+
+	override setPackages(List<String> packages)
+	{
+		packages.forEach[p | p.packageId]
+	}
+
+	override addDependencyInfo(DependencyInfo info)
+	{
+		val source = info.sourcePackage.packageId
+		val target = info.targetPackage.packageId
+		val key = ((source as long) << 32) + target
+		var edge = edgeIds.get(key)
+		if (edge === null)
+		{
+			edge = edgeSources.size
+			edgeIds.put(key, edge)
+			edgeSources.add(source)
+			edgeTargets.add(target)
+			edgeCounts.add(0)
+			edgeFirstDependencies.add(-1)
+			edgeLastDependencies.add(-1)
+			offsets = null
+		}
+
+		val dependency = nextDependencies.size
+		val sourceElement = info.sourceElement
+		val targetElement = info.targetElement
+		if (resourceSet === null && sourceElement.eResource?.resourceSet !== null)
+			resourceSet = new WeakReference(sourceElement.eResource.resourceSet)
+		sourceResources.add(sourceElement.eResource?.URI.resourceId)
+		sourceFragments += sourceElement.eResource?.getURIFragment(sourceElement)
+		targetResources.add(targetElement.eResource?.URI.resourceId)
+		targetFragments += targetElement.eResource?.getURIFragment(targetElement)
+		dependencyReferences.add(info.dependencyElement.referenceId)
+		dependencyIndexes.add(info.index)
+		nextDependencies.add(-1)
+
+		if (edgeLastDependencies.get(edge) == -1) edgeFirstDependencies.set(edge, dependency)
+		else nextDependencies.set(edgeLastDependencies.get(edge), dependency)
+		edgeLastDependencies.set(edge, dependency)
+		edgeCounts.set(edge, edgeCounts.get(edge) + 1)
+	}
+
+	/**
+	 * Reconstruit les DependencyInfo de l'arc à partir des fragments mémorisés.
+	 * Les objets qui n'existent plus dans le ResourceSet sont ignorés.
+	 */
+	override getDependencyInfos(String sourcePackage, String targetPackage)
+	{
+		val edge = getEdge(sourcePackage, targetPackage)
+		if (edge === null) return null
+
+		val infos = new ArrayList<DependencyInfo>(edgeCounts.get(edge))
+		val rs = resourceSet?.get
+		if (rs === null) return infos
+		var dependency = edgeFirstDependencies.get(edge)
+		while (dependency != -1)
+		{
+			val sourceElement = rs.resolve(sourceResources.get(dependency), sourceFragments.get(dependency))
+			val targetElement = rs.resolve(targetResources.get(dependency), targetFragments.get(dependency))
+			if (sourceElement !== null && targetElement !== null)
+				infos += new DependencyInfo(sourceElement, targetElement, references.get(dependencyReferences.get(dependency)),
+					dependencyIndexes.get(dependency), sourcePackage, targetPackage)
+			dependency = nextDependencies.get(dependency)
+		}
+		return infos
+	}
+
+	override getNbDependencies(String sourcePackage, String targetPackage)
+	{
+		val edge = getEdge(sourcePackage, targetPackage)
+		if (edge === null) 0 else edgeCounts.get(edge)
+	}
+
+	override getPackages() { Collections::unmodifiableList(packageNames) }
+
+	override getSuccessors(String sourcePackage)
+	{
+		val source = packageIds.get(sourcePackage)
+		if (source === null) return #[]
+		ensureAdjacency
+		val successors = new ArrayList<String>(offsets.get(source + 1) - offsets.get(source))
+		for (i : offsets.get(source) ..< offsets.get(source + 1))
+			successors += packageNames.get(adjacency.get(i))
+		return successors
+	}
+
+	/**
+	 * Recherche les cycles élémentaires du graphe.
+	 * @see CyclesFinder
+	 */
+	override findSimpleCycles()
+	{
+		new CyclesFinder(this).findSimpleCycles
+	}
+
+	private def getEdge(String sourcePackage, String targetPackage)
+	{
+		val source = packageIds.get(sourcePackage)
+		val target = packageIds.get(targetPackage)
+		if (source === null || target === null) null
+		else edgeIds.get(((source as long) << 32) + target)
+	}
+
+	private def synchronized ensureAdjacency()
+	{
+		if (offsets !== null) return
+
+		val newOffsets = newIntArrayOfSize(packageNames.size + 1)
+		for (e : 0 ..< edgeSources.size)
+			newOffsets.set(edgeSources.get(e) + 1, newOffsets.get(edgeSources.get(e) + 1) + 1)
+		for (p : 0 ..< packageNames.size)
+			newOffsets.set(p + 1, newOffsets.get(p + 1) + newOffsets.get(p))
+
+		val newAdjacency = newIntArrayOfSize(edgeSources.size)
+		val fill = Arrays::copyOf(newOffsets, packageNames.size)
+		for (e : 0 ..< edgeSources.size)
+		{
+			val source = edgeSources.get(e)
+			newAdjacency.set(fill.get(source), edgeTargets.get(e))
+			fill.set(source, fill.get(source) + 1)
+		}
+		adjacency = newAdjacency
+		offsets = newOffsets
+	}
+
+	private def int getPackageId(String packageName)
+	{
+		var id = packageIds.get(packageName)
+		if (id === null)
+		{
+			id = packageNames.size
+			packageNames += packageName
+			packageIds.put(packageName, id)
+		}
+		return id
+	}
+
+	private def int getResourceId(URI uri)
+	{
+		if (uri === null) return -1
+		var id = resourceIds.get(uri)
+		if (id === null)
+		{
+			id = resourceUris.size
+			resourceUris += uri
+			resourceIds.put(uri, id)
+		}
+		return id
+	}
+
+	private def int getReferenceId(EReference reference)
+	{
+		var id = referenceIds.get(reference)
+		if (id === null)
+		{
+			id = references.size
+			references += reference
+			referenceIds.put(reference, id)
+		}
+		return id
+	}
+
+	private def resolve(ResourceSet rs, int resourceId, String fragment)
+	{
+		if (resourceId == -1 || fragment === null) return null
+		val resource = rs.getResource(resourceUris.get(resourceId), false)
+		resource?.getEObject(fragment)
+	}
+}
+
+/** Tableau d'entiers extensible, sans boxing */
+package class IntBuffer
+{
+	int[] values = newIntArrayOfSize(16)
+	int size = 0
+
+	def getSize() { size }
+	def get(int i) { values.get(i) }
+	def set(int i, int value) { values.set(i, value) }
+
+	def add(int value)
+	{
+		if (size == values.length) values = Arrays::copyOf(values, size * 2)
+		values.set(size, value)
+		size = size + 1
+	}
+}
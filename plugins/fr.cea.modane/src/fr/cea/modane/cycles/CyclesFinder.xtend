@@ -0,0 +1,319 @@
+/*******************************************************************************
+ * Copyright (c) 2022 CEA
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * Contributors: see AUTHORS file
+ *******************************************************************************/
+package fr.cea.modane.cycles
+
+import java.util.ArrayDeque
+import java.util.ArrayList
+import java.util.Arrays
+import java.util.HashMap
+import java.util.HashSet
+import java.util.LinkedList
+import java.util.List
+import java.util.Set
+import org.eclipse.core.runtime.IProgressMonitor
+import org.eclipse.core.runtime.NullProgressMonitor
+import org.eclipse.xtend.lib.annotations.Accessors
+
+/**
+ * Recherche des cycles élémentaires d'un DependencyGraph.
+ * Les composantes fortement connexes sont d'abord calculées en temps linéaire (Tarjan),
+ * puis les cycles sont énumérés uniquement à l'intérieur des composantes non triviales (Johnson).
+ * Chaque cycle est transmis dès qu'il est trouvé. La recherche s'arrête quand le nombre
+ * maximal de cycles est atteint ou quand le IProgressMonitor est annulé.
+ * Les cycles plus longs que la longueur maximale (en nombre d'arcs) sont ignorés.
+ */
+class CyclesFinder
+{
+	public static val NoLimit = Integer::MAX_VALUE
+
+	@Accessors int maxCycles = NoLimit
+	@Accessors int maxLength = NoLimit
+	@Accessors IProgressMonitor monitor = new NullProgressMonitor
+	/** Vrai si la recherche a été interrompue par le nombre maximal de cycles */
+	@Accessors(PUBLIC_GETTER) boolean limitReached = false
+
+	val List<String> nodes
+	val int[][] successors
+	var (List<String>)=>void acceptor
+	var int nbCycles
+	var boolean stopped
+
+	// composante en cours : noeuds (indices globaux, croissants) et successeurs en indices locaux
+	var int[] componentNodes
+	var int[][] componentSuccessors
+	// indices locaux des noeuds de la composante en cours, -1 pour les autres
+	val int[] localIds
+
+	// état de l'algorithme de Johnson, indexé localement et réutilisé pour chaque noeud de départ
+	var boolean[] blocked
+	var List<Set<Integer>> blockedBy
+	val path = new ArrayList<Integer>
+
+	new(DependencyGraph graph)
+	{
+		nodes = new ArrayList<String>
+		val ids = new HashMap<String, Integer>
+		for (p : graph.packages)
+		{
+			ids.put(p, nodes.size)
+			nodes += p
+		}
+
+		successors = newArrayOfSize(nodes.size)
+		for (i : 0..<nodes.size)
+		{
+			val ws = graph.getSuccessors(nodes.get(i)).map[w | ids.get(w)].filterNull.toList
+			val int[] array = newIntArrayOfSize(ws.size)
+			for (j : 0..<ws.size) array.set(j, ws.get(j))
+			successors.set(i, array)
+		}
+		localIds = newIntArrayOfSize(nodes.size)
+		Arrays::fill(localIds, -1)
+	}
+
+	/**
+	 * Retourne la liste des cycles élémentaires.
+	 * Chaque cycle est représenté par une liste de noeuds dont le premier et le dernier sont identiques.
+	 */
+	def findSimpleCycles()
+	{
+		val cycles = new LinkedList<List<String>>
+		findSimpleCycles[c | cycles += c]
+		return cycles
+	}
+
+	/** Transmet à acceptor chaque cycle élémentaire dès qu'il est trouvé */
+	def void findSimpleCycles((List<String>)=>void acceptor)
+	{
+		this.acceptor = acceptor
+		nbCycles = 0
+		stopped = false
+		limitReached = false
+
+		val all = newBooleanArrayOfSize(nodes.size)
+		Arrays::fill(all, true)
+		for (component : stronglyConnectedComponents(successors, all))
+			if (!stopped) findCycles(component)
+	}
+
+	private def findCycles(int[] component)
+	{
+		componentNodes = Arrays::copyOf(component, component.length)
+		Arrays::sort(componentNodes)
+		val k = componentNodes.length
+		if (k == 1)
+		{
+			val v = componentNodes.get(0)
+			if (successors.get(v).includes(v) && maxLength >= 1) accept(#[0], 0)
+			return
+		}
+
+		// sous-graphe de la composante en indices locaux : les tableaux sont de taille k
+		var i = 0
+		while (i < k) { localIds.set(componentNodes.get(i), i); i++ }
+		componentSuccessors = newArrayOfSize(k)
+		i = 0
+		while (i < k)
+		{
+			val ws = successors.get(componentNodes.get(i))
+			var nbLocal = 0
+			for (w : ws) if (localIds.get(w) != -1) nbLocal++
+			val int[] local = newIntArrayOfSize(nbLocal)
+			nbLocal = 0
+			for (w : ws) if (localIds.get(w) != -1) { local.set(nbLocal, localIds.get(w)); nbLocal++ }
+			componentSuccessors.set(i, local)
+			i++
+		}
+		for (v : componentNodes) localIds.set(v, -1)
+
+		blocked = newBooleanArrayOfSize(k)
+		blockedBy = new ArrayList<Set<Integer>>(k)
+		i = 0
+		while (i < k) { blockedBy += new HashSet<Integer>; i++ }
+		val inSubgraph = newBooleanArrayOfSize(k)
+		Arrays::fill(inSubgraph, true)
+		val inComponent = newBooleanArrayOfSize(k)
+
+		// Johnson : pour chaque noeud s, cycles passant par s dans le sous-graphe des noeuds >= s
+		var s = 0
+		while (s < k && !stopped)
+		{
+			val start = s
+			val sComponent = stronglyConnectedComponents(componentSuccessors, inSubgraph).findFirst[c | c.includes(start)]
+			for (v : sComponent) inComponent.set(v, true)
+			circuit(s, s, inComponent)
+			// seuls les noeuds de sComponent ont été modifiés par circuit
+			for (v : sComponent)
+			{
+				inComponent.set(v, false)
+				blocked.set(v, false)
+				blockedBy.get(v).clear
+			}
+			inSubgraph.set(s, false)
+			s++
+		}
+	}
+
+	private def boolean circuit(int v, int s, boolean[] inComponent)
+	{
+		if (monitor.canceled) stopped = true
+		if (stopped) return true
+
+		var found = false
+		path += v
+		blocked.set(v, true)
+		for (w : componentSuccessors.get(v))
+		{
+			if (!stopped && inComponent.get(w))
+			{
+				if (w == s)
+				{
+					accept(path, s)
+					found = true
+				}
+				// au-delà de la longueur maximale, v ne doit pas rester bloqué
+				else if (path.size >= maxLength) found = true
+				else if (!blocked.get(w) && circuit(w, s, inComponent)) found = true
+			}
+		}
+
+		if (found) unblock(v)
+		else
+			for (w : componentSuccessors.get(v))
+				if (inComponent.get(w)) blockedBy.get(w) += v
+
+		path.remove(path.size - 1)
+		return found
+	}
+
+	private def unblock(int v)
+	{
+		val toUnblock = new ArrayDeque<Integer>
+		toUnblock.push(v)
+		while (!toUnblock.empty)
+		{
+			val u = toUnblock.pop
+			if (blocked.get(u))
+			{
+				blocked.set(u, false)
+				for (w : blockedBy.get(u)) toUnblock.push(w)
+				blockedBy.get(u).clear
+			}
+		}
+	}
+
+	/** cyclePath et s sont des indices locaux à la composante en cours */
+	private def accept(List<Integer> cyclePath, int s)
+	{
+		val cycle = new ArrayList<String>(cyclePath.size + 1)
+		for (v : cyclePath) cycle += nodes.get(componentNodes.get(v))
+		cycle += nodes.get(componentNodes.get(s))
+		acceptor.apply(cycle)
+
+		nbCycles++
+		if (nbCycles >= maxCycles)
+		{
+			limitReached = true
+			stopped = true
+		}
+	}
+
+	private static def includes(int[] values, int value)
+	{
+		for (v : values) if (v == value) return true
+		return false
+	}
+
+	/**
+	 * Composantes fortement connexes du sous-graphe de graph induit par les noeuds de inSubgraph.
+	 * Algorithme de Tarjan sans récursion pour ne pas dépendre de la taille de la pile.
+	 */
+	private static def stronglyConnectedComponents(int[][] graph, boolean[] inSubgraph)
+	{
+		val n = graph.length
+		val index = newIntArrayOfSize(n)
+		Arrays::fill(index, -1)
+		val lowLink = newIntArrayOfSize(n)
+		val onStack = newBooleanArrayOfSize(n)
+		val stack = new ArrayDeque<Integer>
+		// pile d'appels : noeud et position du prochain successeur à parcourir
+		val callNodes = newIntArrayOfSize(n)
+		val callPositions = newIntArrayOfSize(n)
+		val components = new ArrayList<int[]>
+		var counter = 0
+
+		for (root : 0..<n)
+		{
+			if (inSubgraph.get(root) && index.get(root) == -1)
+			{
+				index.set(root, counter)
+				lowLink.set(root, counter)
+				counter++
+				stack.push(root)
+				onStack.set(root, true)
+				callNodes.set(0, root)
+				callPositions.set(0, 0)
+				var depth = 1
+
+				while (depth > 0)
+				{
+					val v = callNodes.get(depth - 1)
+					val position = callPositions.get(depth - 1)
+					if (position < graph.get(v).length)
+					{
+						callPositions.set(depth - 1, position + 1)
+						val w = graph.get(v).get(position)
+						if (inSubgraph.get(w))
+						{
+							if (index.get(w) == -1)
+							{
+								index.set(w, counter)
+								lowLink.set(w, counter)
+								counter++
+								stack.push(w)
+								onStack.set(w, true)
+								callNodes.set(depth, w)
+								callPositions.set(depth, 0)
+								depth++
+							}
+							else if (onStack.get(w))
+								lowLink.set(v, Math::min(lowLink.get(v), index.get(w)))
+						}
+					}
+					else
+					{
+						depth--
+						if (depth > 0)
+						{
+							val u = callNodes.get(depth - 1)
+							lowLink.set(u, Math::min(lowLink.get(u), lowLink.get(v)))
+						}
+						if (lowLink.get(v) == index.get(v))
+						{
+							val component = new ArrayList<Integer>
+							var int w
+							do
+							{
+								w = stack.pop
+								onStack.set(w, false)
+								component += w
+							}
+							while (w != v)
+							val int[] array = newIntArrayOfSize(component.size)
+							for (i : 0..<component.size) array.set(i, component.get(i))
+							components += array
+						}
+					}
+				}
+			}
+		}
+		return components
+	}
+}
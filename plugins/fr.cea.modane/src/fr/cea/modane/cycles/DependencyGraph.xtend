@@ -21,28 +21,45 @@ import static extension fr.cea.modane.ModaneElementExtensions.*
  * Les noeuds sont les noms des packages.
  * Si un package A dépend de B, il existe un arc A -> B.
  * Cet arc porte une liste de DependencyInfo.
+ * Cette interface ne permet que la consultation du graphe.
  * @see DependencyInfo
+ * @see MutableDependencyGraph
  */
 interface DependencyGraph 
 {
 	public static val Separator = ' >> '
 	
-	def void setPackages(List<String> packages)
-	def void addDependencyInfo(DependencyInfo info)	
 	def List<DependencyInfo> getDependencyInfos(String sourcePackage, String targetPackage)
+	def int getNbDependencies(String sourcePackage, String targetPackage)
+	def Iterable<String> getPackages()
+	def Iterable<String> getSuccessors(String sourcePackage)
 	
 	/** 
 	 * Retourne la liste des cycles élémentaires.
 	 * Chaque cycle est représenté par une liste de noeuds.
 	 * Le premier noeud et le dernier noeud de la liste doivent être identiques.
+	 * Pour limiter ou interrompre la recherche, utiliser directement un CyclesFinder.
+	 * @see CyclesFinder
 	 */
 	def List<List<String>> findSimpleCycles()
 }
 
+/**
+ * Graphe de dépendances construit par ajouts successifs :
+ * les packages sont d'abord déclarés, puis les DependencyInfo sont ajoutées.
+ * @see GraphBuilder
+ */
+interface MutableDependencyGraph extends DependencyGraph
+{
+	def void setPackages(List<String> packages)
+	def void addDependencyInfo(DependencyInfo info)
+}
+
 /**
  * Classe représentant des informations sur la dépendance entre objets d'une application.
  * Elle contient l'élément de départ de la dépendance, l'élément d'arrivée, le type de 
  * la dépendance (en terme EMF) et l'indice dans le cas d'une cardinalité multiple. 
+ * Les noms des packages source et cible sont calculés une seule fois.
  */
 class DependencyInfo
 {
@@ -50,21 +67,40 @@ class DependencyInfo
 	val EObject targetElement
 	val EReference dependencyElement
 	val int index
+	String sourcePackage
+	String targetPackage
 
 	new(EObject sourceElement, EObject targetElement, EReference dependencyElement, int index)
+	{
+		this(sourceElement, targetElement, dependencyElement, index, null, null)
+	}
+
+	new(EObject sourceElement, EObject targetElement, EReference dependencyElement, int index, String sourcePackage, String targetPackage)
 	{
 		this.sourceElement = sourceElement
 		this.targetElement = targetElement
 		this.dependencyElement = dependencyElement
 		this.index = index
+		this.sourcePackage = sourcePackage
+		this.targetPackage = targetPackage
 	}
 	
 	def getSourceElement() { sourceElement }
 	def getTargetElement() { targetElement }
 	def getDependencyElement() { dependencyElement }
 	def getIndex() { index }
-	def getSourcePackage() { sourceElement.modaneParent.model.name }
-	def getTargetPackage() { targetElement.modaneParent.model.name }
+
+	def getSourcePackage()
+	{
+		if (sourcePackage === null) sourcePackage = sourceElement.modaneParent.model.name
+		return sourcePackage
+	}
+
+	def getTargetPackage()
+	{
+		if (targetPackage === null) targetPackage = targetElement.modaneParent.model.name
+		return targetPackage
+	}
 	
 	override toString()
 	{
@@ -0,0 +1,401 @@
+/*******************************************************************************
+ * Copyright (c) 2022 CEA
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * Contributors: see AUTHORS file
+ *******************************************************************************/
+package fr.cea.modane.cycles
+
+import fr.cea.modane.modane.Function
+import fr.cea.modane.modane.Interface
+import fr.cea.modane.modane.ModaneModel
+import fr.cea.modane.modane.Module
+import fr.cea.modane.modane.Service
+import fr.cea.modane.modane.Struct
+import fr.cea.modane.modane.Variable
+import java.io.File
+import java.io.Writer
+import java.nio.charset.StandardCharsets
+import java.nio.file.Files
+import java.util.ArrayList
+import java.util.Arrays
+import java.util.IdentityHashMap
+import java.util.List
+import org.eclipse.emf.ecore.EObject
+import org.eclipse.emf.ecore.EReference
+
+import static extension fr.cea.modane.EObjectExtensions.*
+import static extension fr.cea.modane.ModaneElementExtensions.*
+
+/**
+ * Graphe de dépendances entre éléments : modules, services, interfaces, structures,
+ * fonctions et variables. Un objet contenu dans un de ces éléments (propriété,
+ * point d'entrée, argument...) est rattaché à l'élément le plus proche qui le contient.
+ * Le graphe est construit en un seul parcours des modèles et stocké en tableaux
+ * d'entiers (liste d'adjacence compressée, arcs dédoublonnés avec leur multiplicité).
+ * La construction calcule, en temps linéaire, les composantes fortement connexes (Tarjan),
+ * la couche de chaque noeud dans le graphe des composantes (0 pour un noeud qui ne dépend
+ * d'aucune autre composante) et les nombres de dépendances entrantes et sortantes.
+ * Tous les éléments des modèles sont des noeuds, y compris ceux sans dépendance.
+ * L'export (GraphML, DOT ou CSV) écrit le résultat au fil de l'eau dans un fichier.
+ */
+class ElementDependencyGraph
+{
+	enum ExportFormat { GraphML, Dot, Csv }
+
+	val List<EObject> nodes = new ArrayList<EObject>
+	val nodeIds = new IdentityHashMap<EObject, Integer>
+
+	// liste d'adjacence compressée : les successeurs de v sont adjacency[offsets[v]..offsets[v+1][
+	int[] offsets
+	int[] adjacency
+	int[] weights
+
+	int[] fanIn
+	int[] components
+	int[] componentSizes
+	int[] layers
+	int nbComponents
+
+	new(Iterable<ModaneModel> models)
+	{
+		val edgeSources = new IntBuffer
+		val edgeTargets = new IntBuffer
+		for (m : models)
+		{
+			val contents = m.eAllContents
+			while (contents.hasNext)
+			{
+				val o = contents.next
+				if (o.isNode) o.nodeId
+				val source = o.nodeOwner
+				if (source !== null)
+					for (r : o.eClass.EAllReferences)
+						if (!r.containment && !r.container && !r.derived && !r.transient)
+							for (target : o.getTargets(r))
+							{
+								val targetNode = target.nodeOwner
+								if (targetNode !== null && targetNode !== source)
+								{
+									edgeSources.add(source.nodeId)
+									edgeTargets.add(targetNode.nodeId)
+								}
+							}
+			}
+		}
+		buildAdjacency(edgeSources, edgeTargets)
+		computeComponentsAndLayers
+	}
+
+	def getNbNodes() { nodes.size }
+	def getNbEdges() { offsets.get(nodes.size) }
+	def getNbComponents() { nbComponents }
+	def getNode(int v) { nodes.get(v) }
+	def getFanIn(int v) { fanIn.get(v) }
+	def getFanOut(int v) { offsets.get(v + 1) - offsets.get(v) }
+	def getComponent(int v) { components.get(v) }
+	def getComponentSize(int v) { componentSizes.get(components.get(v)) }
+	def getLayer(int v) { layers.get(components.get(v)) }
+
+	/** Format correspondant au nom (graphml, dot ou csv, sans tenir compte de la casse), null s'il n'existe pas */
+	static def parseFormat(String name)
+	{
+		ExportFormat::values.findFirst[f | f.name.equalsIgnoreCase(name)]
+	}
+
+	static def getFileExtension(ExportFormat format)
+	{
+		format.name.toLowerCase
+	}
+
+	def export(File file, ExportFormat format)
+	{
+		val writer = Files::newBufferedWriter(file.toPath, StandardCharsets::UTF_8)
+		try export(writer, format) finally writer.close
+	}
+
+	def export(Writer out, ExportFormat format)
+	{
+		switch format
+		{
+			case GraphML: exportGraphML(out)
+			case Dot: exportDot(out)
+			case Csv: exportCsv(out)
+		}
+		out.flush
+	}
+
+	private def exportGraphML(Writer out)
+	{
+		out.write('<?xml version="1.0" encoding="UTF-8"?>\n')
+		out.write('<graphml xmlns="http://graphml.graphdrawing.org/xmlns">\n')
+		for (key : #['kind', 'package', 'name'])
+			out.write('  <key id="' + key + '" for="node" attr.name="' + key + '" attr.type="string"/>\n')
+		for (key : #['component', 'componentSize', 'layer', 'fanIn', 'fanOut'])
+			out.write('  <key id="' + key + '" for="node" attr.name="' + key + '" attr.type="int"/>\n')
+		out.write('  <key id="weight" for="edge" attr.name="weight" attr.type="int"/>\n')
+		out.write('  <graph id="modane" edgedefault="directed">\n')
+		for (v : 0..<nodes.size)
+		{
+			out.write('    <node id="n' + v + '">')
+			out.writeData('kind', nodes.get(v).eClass.name)
+			out.writeData('package', nodes.get(v).packageName)
+			out.writeData('name', nodes.get(v).fullName)
+			out.writeData('component', String::valueOf(getComponent(v)))
+			out.writeData('componentSize', String::valueOf(getComponentSize(v)))
+			out.writeData('layer', String::valueOf(getLayer(v)))
+			out.writeData('fanIn', String::valueOf(getFanIn(v)))
+			out.writeData('fanOut', String::valueOf(getFanOut(v)))
+			out.write('</node>\n')
+		}
+		for (v : 0..<nodes.size)
+			for (i : offsets.get(v)..<offsets.get(v + 1))
+			{
+				out.write('    <edge source="n' + v + '" target="n' + adjacency.get(i) + '">')
+				out.writeData('weight', String::valueOf(weights.get(i)))
+				out.write('</edge>\n')
+			}
+		out.write('  </graph>\n')
+		out.write('</graphml>\n')
+	}
+
+	private def writeData(Writer out, String key, String value)
+	{
+		out.write('<data key="' + key + '">' + value.xmlEscape + '</data>')
+	}
+
+	/** Les noeuds des composantes non triviales (cycles) sont en rouge */
+	private def exportDot(Writer out)
+	{
+		out.write('digraph modane {\n')
+		out.write('  node [shape=box];\n')
+		for (v : 0..<nodes.size)
+		{
+			out.write('  n' + v + ' [label="' + (nodes.get(v).packageName + '.' + nodes.get(v).fullName).dotEscape + '\\n' + nodes.get(v).eClass.name + '"')
+			if (getComponentSize(v) > 1) out.write(', color=red')
+			out.write('];\n')
+		}
+		for (v : 0..<nodes.size)
+			for (i : offsets.get(v)..<offsets.get(v + 1))
+				out.write('  n' + v + ' -> n' + adjacency.get(i) + ' [weight=' + weights.get(i) + '];\n')
+		out.write('}\n')
+	}
+
+	/** Une ligne par noeud avec ses métriques */
+	private def exportCsv(Writer out)
+	{
+		out.write('id,kind,package,name,component,componentSize,layer,fanIn,fanOut\n')
+		for (v : 0..<nodes.size)
+		{
+			out.write(v + ',' + nodes.get(v).eClass.name + ',' + nodes.get(v).packageName.csvEscape + ',' + nodes.get(v).fullName.csvEscape)
+			out.write(',' + getComponent(v) + ',' + getComponentSize(v) + ',' + getLayer(v) + ',' + getFanIn(v) + ',' + getFanOut(v) + '\n')
+		}
+	}
+
+	/** Tri par comptage des arcs selon leur source puis fusion des arcs identiques */
+	private def buildAdjacency(IntBuffer edgeSources, IntBuffer edgeTargets)
+	{
+		val n = nodes.size
+		val m = edgeSources.size
+		offsets = newIntArrayOfSize(n + 1)
+		for (e : 0..<m) offsets.set(edgeSources.get(e) + 1, offsets.get(edgeSources.get(e) + 1) + 1)
+		for (v : 0..<n) offsets.set(v + 1, offsets.get(v + 1) + offsets.get(v))
+		val sorted = newIntArrayOfSize(m)
+		val fill = Arrays::copyOf(offsets, n)
+		for (e : 0..<m)
+		{
+			val source = edgeSources.get(e)
+			sorted.set(fill.get(source), edgeTargets.get(e))
+			fill.set(source, fill.get(source) + 1)
+		}
+
+		// position du dernier arc écrit vers chaque cible : un arc déjà écrit pour la source
+		// courante a une position supérieure ou égale au début de la ligne
+		val lastPosition = newIntArrayOfSize(n)
+		Arrays::fill(lastPosition, -1)
+		adjacency = newIntArrayOfSize(m)
+		weights = newIntArrayOfSize(m)
+		fanIn = newIntArrayOfSize(n)
+		var size = 0
+		for (v : 0..<n)
+		{
+			val start = offsets.get(v)
+			val end = offsets.get(v + 1)
+			offsets.set(v, size)
+			for (i : start..<end)
+			{
+				val target = sorted.get(i)
+				val position = lastPosition.get(target)
+				if (position >= offsets.get(v)) weights.set(position, weights.get(position) + 1)
+				else
+				{
+					adjacency.set(size, target)
+					weights.set(size, 1)
+					lastPosition.set(target, size)
+					fanIn.set(target, fanIn.get(target) + 1)
+					size++
+				}
+			}
+		}
+		offsets.set(n, size)
+		adjacency = Arrays::copyOf(adjacency, size)
+		weights = Arrays::copyOf(weights, size)
+	}
+
+	/**
+	 * Tarjan sans récursion. Une composante est terminée après toutes les composantes
+	 * qu'elle atteint : sa couche est calculée dès qu'elle est dépilée.
+	 */
+	private def computeComponentsAndLayers()
+	{
+		val n = nodes.size
+		val index = newIntArrayOfSize(n)
+		Arrays::fill(index, -1)
+		val lowLink = newIntArrayOfSize(n)
+		val stack = newIntArrayOfSize(n)
+		val onStack = newBooleanArrayOfSize(n)
+		val callNodes = newIntArrayOfSize(n)
+		val callPositions = newIntArrayOfSize(n)
+		components = newIntArrayOfSize(n)
+		componentSizes = newIntArrayOfSize(n)
+		layers = newIntArrayOfSize(n)
+		nbComponents = 0
+		var counter = 0
+		var stackSize = 0
+
+		for (root : 0..<n)
+		{
+			if (index.get(root) == -1)
+			{
+				index.set(root, counter)
+				lowLink.set(root, counter)
+				counter++
+				stack.set(stackSize, root)
+				stackSize++
+				onStack.set(root, true)
+				callNodes.set(0, root)
+				callPositions.set(0, offsets.get(root))
+				var depth = 1
+
+				while (depth > 0)
+				{
+					val v = callNodes.get(depth - 1)
+					val position = callPositions.get(depth - 1)
+					if (position < offsets.get(v + 1))
+					{
+						callPositions.set(depth - 1, position + 1)
+						val w = adjacency.get(position)
+						if (index.get(w) == -1)
+						{
+							index.set(w, counter)
+							lowLink.set(w, counter)
+							counter++
+							stack.set(stackSize, w)
+							stackSize++
+							onStack.set(w, true)
+							callNodes.set(depth, w)
+							callPositions.set(depth, offsets.get(w))
+							depth++
+						}
+						else if (onStack.get(w))
+							lowLink.set(v, Math::min(lowLink.get(v), index.get(w)))
+					}
+					else
+					{
+						depth--
+						if (depth > 0)
+						{
+							val u = callNodes.get(depth - 1)
+							lowLink.set(u, Math::min(lowLink.get(u), lowLink.get(v)))
+						}
+						if (lowLink.get(v) == index.get(v))
+						{
+							// les noeuds de la composante sont en haut de la pile, jusqu'à v
+							val component = nbComponents
+							nbComponents++
+							var first = stackSize
+							do
+							{
+								first--
+								onStack.set(stack.get(first), false)
+								components.set(stack.get(first), component)
+							}
+							while (stack.get(first) != v)
+
+							var layer = 0
+							for (j : first..<stackSize)
+							{
+								val x = stack.get(j)
+								for (i : offsets.get(x)..<offsets.get(x + 1))
+								{
+									val c = components.get(adjacency.get(i))
+									if (c != component) layer = Math::max(layer, layers.get(c) + 1)
+								}
+							}
+							layers.set(component, layer)
+							componentSizes.set(component, stackSize - first)
+							stackSize = first
+						}
+					}
+				}
+			}
+		}
+	}
+
+	private def int getNodeId(EObject node)
+	{
+		var id = nodeIds.get(node)
+		if (id === null)
+		{
+			id = nodes.size
+			nodes += node
+			nodeIds.put(node, id)
+		}
+		return id
+	}
+
+	/** Élément du graphe qui contient l'objet, null s'il n'y en a pas */
+	private static def EObject getNodeOwner(EObject o)
+	{
+		var current = o
+		while (current !== null && !current.eIsProxy)
+		{
+			if (current.isNode) return current
+			current = current.eContainer
+		}
+		return null
+	}
+
+	private static def isNode(EObject o)
+	{
+		o instanceof Module || o instanceof Service || o instanceof Interface
+			|| o instanceof Struct || o instanceof Function || o instanceof Variable
+	}
+
+	private static def List<EObject> getTargets(EObject o, EReference r)
+	{
+		val value = o.eGet(r)
+		if (value === null) #[]
+		else if (r.many) value as List<EObject>
+		else #[value as EObject]
+	}
+
+	private static def getPackageName(EObject node) { node.modaneParent?.model?.name }
+
+	private static def xmlEscape(String s)
+	{
+		if (s === null) '' else s.replace('&', '&amp;').replace('<', '&lt;').replace('>', '&gt;').replace('"', '&quot;')
+	}
+
+	private static def dotEscape(String s) { s.replace('\\', '\\\\').replace('"', '\\"') }
+
+	private static def csvEscape(String s)
+	{
+		if (s === null) ''
+		else if (s.contains(',') || s.contains('"')) '"' + s.replace('"', '""') + '"'
+		else s
+	}
+}
@@ -16,6 +16,7 @@ import fr.cea.modane.modane.Function
 import fr.cea.modane.modane.Interface
 import fr.cea.modane.modane.ItemFamily
 import fr.cea.modane.modane.Legacy
+import fr.cea.modane.modane.ModaneElement
 import fr.cea.modane.modane.ModaneModel
 import fr.cea.modane.modane.ModanePackage
 import fr.cea.modane.modane.Module
@@ -27,7 +28,9 @@ import fr.cea.modane.modane.ServiceOrModule
 import fr.cea.modane.modane.Struct
 import fr.cea.modane.modane.VarReference
 import fr.cea.modane.modane.Variable
+import java.util.ArrayList
 import java.util.LinkedHashSet
+import java.util.List
 import org.eclipse.emf.ecore.EObject
 import org.eclipse.emf.ecore.EReference
 
@@ -40,7 +43,7 @@ import static extension fr.cea.modane.ModaneElementExtensions.*
 class GraphBuilder
 {
 	val static pack = ModanePackage::eINSTANCE
-	DependencyGraph graph
+	(DependencyInfo)=>void acceptor
 
 	/**
 	 * Le constructeur fonctionne en 3 étapes.
@@ -56,7 +59,8 @@ class GraphBuilder
 	 */
 	def createGraph(Iterable<ModaneModel> models)
 	{
-		graph = new JGraphTDependencyGraph
+		val graph = new CompactDependencyGraph
+		acceptor = [info | graph.addDependencyInfo(info)]
 
 		// Construction de la liste des packages
 		val packages = new LinkedHashSet<String>
@@ -75,6 +79,15 @@ class GraphBuilder
 		return graph
 	}
 
+	/** Retourne les dépendances de l'élément vers des éléments d'autres packages */
+	def List<DependencyInfo> getDependencies(ModaneElement e)
+	{
+		val dependencies = new ArrayList<DependencyInfo>
+		acceptor = [info | dependencies += info]
+		e.findArcs
+		return dependencies
+	}
+
 	private def dispatch findArcs(Variable e) {}
 	private def dispatch findArcs(Legacy e) {}
 	private def dispatch findArcs(Enumeration e) {}
@@ -120,8 +133,10 @@ class GraphBuilder
 
 	private def checkDependency(EObject source, EObject target, EReference reference, int index)
 	{
-		if (!areEquals(source.modaneParent.model, target.modaneParent.model))
-			graph.addDependencyInfo(new DependencyInfo(source, target, reference, index))
+		val sourceModel = source.modaneParent?.model
+		val targetModel = target.modaneParent?.model
+		if (sourceModel !== null && targetModel !== null && !areEquals(sourceModel, targetModel))
+			acceptor.apply(new DependencyInfo(source, target, reference, index, sourceModel.name, targetModel.name))
 	}
 
 	private def checkDependency(Pty it)
@@ -0,0 +1,335 @@
+/*******************************************************************************
+ * Copyright (c) 2022 CEA
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * Contributors: see AUTHORS file
+ *******************************************************************************/
+package fr.cea.modane.cycles
+
+import fr.cea.modane.modane.ModaneElement
+import fr.cea.modane.modane.ModaneModel
+import fr.cea.modane.modane.ModanePackage
+import java.util.ArrayDeque
+import java.util.ArrayList
+import java.util.HashMap
+import java.util.LinkedHashMap
+import java.util.LinkedHashSet
+import java.util.LinkedList
+import java.util.List
+import java.util.Map
+import org.eclipse.emf.common.notify.Notification
+import org.eclipse.emf.ecore.EObject
+import org.eclipse.emf.ecore.EReference
+import org.eclipse.emf.ecore.resource.Resource
+import org.eclipse.emf.ecore.util.EContentAdapter
+import org.eclipse.emf.ecore.util.EcoreUtil
+import org.eclipse.xtend.lib.annotations.Data
+
+import static extension fr.cea.modane.EObjectExtensions.*
+import static extension fr.cea.modane.ModaneElementExtensions.*
+
+/**
+ * Graphe de dépendances entre packages maintenu à partir des notifications EMF,
+ * attaché comme adapter à la racine qui contient les modèles (le projet Modane).
+ * Une modification de référence dans un élément (interfaces, parents, calls, vars,
+ * cible d'une Reference...) ne recalcule que les dépendances de cet élément et met
+ * à jour la multiplicité des arcs concernés. L'ajout ou la suppression de modèles ou
+ * d'éléments et le renommage d'un modèle entraînent une reconstruction complète.
+ * Les ressources des objets adaptés sont aussi observées : le chargement, le déchargement
+ * ou le rechargement d'une ressource (fragment rechargé par Sirius...) entraîne une
+ * reconstruction complète.
+ * Les mises à jour sont faites à la première interrogation qui suit les modifications.
+ *
+ * Les arcs apparus depuis la dernière vérification sont mémorisés : findNewCycles
+ * ne parcourt que la partie du graphe accessible depuis ces arcs, ce qui permet une
+ * vérification "pas de nouveau cycle" à chaque sauvegarde (voir NewCyclesCheck dans
+ * le plugin Sirius). Ce graphe retient les éléments des modèles : la recherche complète
+ * des cycles utilise le CompactDependencyGraph construit par GraphBuilder.
+ */
+class IncrementalDependencyGraph extends EContentAdapter implements DependencyGraph
+{
+	static val Lock = new Object
+
+	val EObject root
+	val graphBuilder = new GraphBuilder
+	val contributions = new HashMap<ModaneElement, Contribution>
+	val nbElementsByPackage = new LinkedHashMap<String, Integer>
+	val edges = new LinkedHashMap<String, LinkedHashMap<String, EdgeCounter>>
+	val dirtyElements = new LinkedHashSet<ModaneElement>
+	val addedEdges = new LinkedHashSet<Pair<String, String>>
+	boolean rebuildNeeded = true
+	boolean initialized = false
+
+	/** Retourne le graphe des modèles contenus dans root, créé lors du premier appel */
+	static def getGraph(EObject root)
+	{
+		synchronized (Lock)
+		{
+			var graph = EcoreUtil::getExistingAdapter(root, IncrementalDependencyGraph) as IncrementalDependencyGraph
+			if (graph === null)
+			{
+				graph = new IncrementalDependencyGraph(root)
+				root.eAdapters += graph
+			}
+			return graph
+		}
+	}
+
+	private new(EObject root)
+	{
+		this.root = root
+	}
+
+	override isAdapterForType(Object type) { type == IncrementalDependencyGraph }
+
+	/** Les DependencyInfo sont recalculées à partir des éléments qui contribuent à l'arc */
+	override synchronized getDependencyInfos(String sourcePackage, String targetPackage)
+	{
+		update
+		val edge = edges.get(sourcePackage)?.get(targetPackage)
+		if (edge === null) return null
+		val infos = new ArrayList<DependencyInfo>(edge.count)
+		for (e : edge.elements)
+			infos += graphBuilder.getDependencies(e).filter[i | i.targetPackage == targetPackage]
+		return infos
+	}
+
+	override synchronized getNbDependencies(String sourcePackage, String targetPackage)
+	{
+		update
+		edges.get(sourcePackage)?.get(targetPackage)?.count ?: 0
+	}
+
+	override synchronized getPackages()
+	{
+		update
+		new ArrayList<String>(nbElementsByPackage.keySet)
+	}
+
+	override synchronized getSuccessors(String sourcePackage)
+	{
+		update
+		val targets = edges.get(sourcePackage)
+		if (targets === null) #[] else new ArrayList<String>(targets.keySet)
+	}
+
+	/**
+	 * Recherche les cycles élémentaires du graphe.
+	 * @see CyclesFinder
+	 */
+	override findSimpleCycles()
+	{
+		new CyclesFinder(this).findSimpleCycles
+	}
+
+	/**
+	 * Retourne les cycles créés par les arcs apparus depuis l'appel précédent :
+	 * pour chaque nouvel arc A -> B, un plus court chemin de B vers A s'il existe.
+	 * Chaque cycle commence et se termine par A. Lors du premier appel, seuls les arcs
+	 * apparus depuis la construction initiale du graphe sont considérés.
+	 */
+	def synchronized findNewCycles()
+	{
+		update
+		val cycles = new LinkedList<List<String>>
+		for (edge : addedEdges)
+		{
+			val path = findPath(edge.value, edge.key)
+			if (path !== null)
+			{
+				path.add(0, edge.key)
+				cycles += path
+			}
+		}
+		addedEdges.clear
+		return cycles
+	}
+
+	override notifyChanged(Notification notification)
+	{
+		super.notifyChanged(notification)
+		if (notification.touch || notification.eventType == Notification::REMOVING_ADAPTER) return
+
+		val notifier = notification.notifier
+		val feature = notification.feature
+		synchronized (this)
+		{
+			switch notifier
+			{
+				// chargement, déchargement ou rechargement d'une ressource
+				Resource : if (notification.getFeatureID(Resource) == Resource::RESOURCE__CONTENTS
+						|| notification.getFeatureID(Resource) == Resource::RESOURCE__IS_LOADED)
+					rebuildNeeded = true
+				// ajout, suppression, renommage de modèle ou d'élément
+				ModaneModel : rebuildNeeded = true
+				EObject case notifier.eClass.EPackage instanceof ModanePackage :
+					if (feature instanceof EReference)
+					{
+						val elt = notifier.modaneParent
+						if (elt === null) rebuildNeeded = true
+						else dirtyElements += elt
+					}
+				// conteneurs des modèles (packages du projet...)
+				EObject : if (feature instanceof EReference && (feature as EReference).containment) rebuildNeeded = true
+			}
+		}
+	}
+
+	/** Les proxies ne sont pas résolus par l'adapter pour ne pas charger de ressources */
+	override protected resolve() { false }
+
+	/** La ressource de chaque objet adapté est aussi adaptée pour être notifié de son déchargement */
+	override protected setTarget(EObject target)
+	{
+		super.setTarget(target)
+		val resource = target.eResource
+		if (resource !== null && !resource.eAdapters.contains(this))
+			resource.eAdapters += this
+	}
+
+	private def update()
+	{
+		if (rebuildNeeded) rebuild
+		else if (!dirtyElements.empty)
+		{
+			for (elt : dirtyElements)
+			{
+				removeContribution(elt)
+				if (elt.eContainer instanceof ModaneModel) addContribution(elt)
+			}
+			dirtyElements.clear
+		}
+	}
+
+	private def rebuild()
+	{
+		val oldEdges = allEdges
+		val pendingEdges = new LinkedHashSet<Pair<String, String>>(addedEdges)
+
+		contributions.clear
+		nbElementsByPackage.clear
+		edges.clear
+		dirtyElements.clear
+		for (m : root.eAllContents.filter(ModaneModel).toIterable)
+			for (elt : m.elements)
+				addContribution(elt)
+
+		// nouveaux arcs : absents avant la reconstruction ou pas encore vérifiés.
+		// La première construction sert de référence pour findNewCycles.
+		addedEdges.clear
+		if (initialized)
+			for (edge : allEdges)
+				if (!oldEdges.contains(edge) || pendingEdges.contains(edge))
+					addedEdges += edge
+		initialized = true
+		rebuildNeeded = false
+	}
+
+	private def getAllEdges()
+	{
+		val allEdges = new LinkedHashSet<Pair<String, String>>
+		for (source : edges.entrySet)
+			for (target : source.value.keySet)
+				allEdges += source.key -> target
+		return allEdges
+	}
+
+	private def addContribution(ModaneElement elt)
+	{
+		val sourcePackage = elt.model.name
+		val counts = new LinkedHashMap<String, Integer>
+		for (info : graphBuilder.getDependencies(elt))
+			counts.put(info.targetPackage, (counts.get(info.targetPackage) ?: 0) + 1)
+
+		contributions.put(elt, new Contribution(sourcePackage, counts))
+		nbElementsByPackage.put(sourcePackage, (nbElementsByPackage.get(sourcePackage) ?: 0) + 1)
+		for (c : counts.entrySet)
+		{
+			val targets = edges.computeIfAbsent(sourcePackage, [new LinkedHashMap<String, EdgeCounter>])
+			var edge = targets.get(c.key)
+			if (edge === null)
+			{
+				edge = new EdgeCounter
+				targets.put(c.key, edge)
+				if (initialized) addedEdges += sourcePackage -> c.key
+			}
+			edge.count = edge.count + c.value
+			edge.elements += elt
+		}
+	}
+
+	private def removeContribution(ModaneElement elt)
+	{
+		val contribution = contributions.remove(elt)
+		if (contribution === null) return
+
+		val sourcePackage = contribution.sourcePackage
+		val nbElements = nbElementsByPackage.get(sourcePackage) - 1
+		if (nbElements == 0) nbElementsByPackage.remove(sourcePackage)
+		else nbElementsByPackage.put(sourcePackage, nbElements)
+
+		val targets = edges.get(sourcePackage)
+		for (c : contribution.counts.entrySet)
+		{
+			val edge = targets.get(c.key)
+			edge.count = edge.count - c.value
+			edge.elements.remove(elt)
+			if (edge.count == 0)
+			{
+				targets.remove(c.key)
+				addedEdges.remove(sourcePackage -> c.key)
+			}
+		}
+		if (targets !== null && targets.empty) edges.remove(sourcePackage)
+	}
+
+	/** Plus court chemin de source vers target (parcours en largeur), null s'il n'existe pas */
+	private def findPath(String source, String target)
+	{
+		val previous = new HashMap<String, String>
+		val toVisit = new ArrayDeque<String>
+		previous.put(source, source)
+		toVisit += source
+		while (!toVisit.empty)
+		{
+			val current = toVisit.removeFirst
+			if (current == target)
+			{
+				val path = new LinkedList<String>
+				var node = current
+				path.addFirst(node)
+				while (node != source)
+				{
+					node = previous.get(node)
+					path.addFirst(node)
+				}
+				return path
+			}
+			val targets = edges.get(current)
+			if (targets !== null)
+				for (next : targets.keySet)
+					if (!previous.containsKey(next))
+					{
+						previous.put(next, current)
+						toVisit += next
+					}
+		}
+		return null
+	}
+}
+
+@Data
+package class Contribution
+{
+	val String sourcePackage
+	val Map<String, Integer> counts
+}
+
+package class EdgeCounter
+{
+	public int count = 0
+	public val elements = new LinkedHashSet<ModaneElement>
+}
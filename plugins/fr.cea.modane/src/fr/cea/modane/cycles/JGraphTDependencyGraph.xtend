@@ -12,11 +12,10 @@ package fr.cea.modane.cycles
 import java.util.LinkedList
 import java.util.List
 import org.eclipse.xtend.lib.annotations.Accessors
-import org.jgrapht.alg.cycle.TiernanSimpleCycles
 import org.jgrapht.graph.DefaultDirectedGraph
 import org.jgrapht.graph.DefaultEdge
 
-class JGraphTDependencyGraph implements DependencyGraph
+class JGraphTDependencyGraph implements MutableDependencyGraph
 {
 	val graph = new DefaultDirectedGraph<String, JGraphTDependencyEdge>(JGraphTDependencyEdge)
 	
@@ -35,35 +34,32 @@ class JGraphTDependencyGraph implements DependencyGraph
 	
 	override getDependencyInfos(String sourcePackage, String targetPackage) 
 	{
-		val edge = tiernan.graph.getEdge(sourcePackage, targetPackage)
+		val edge = graph.getEdge(sourcePackage, targetPackage)
 		if (edge === null) null
 		else edge.dependencies
 	}
 
+	override getNbDependencies(String sourcePackage, String targetPackage)
+	{
+		val edge = graph.getEdge(sourcePackage, targetPackage)
+		if (edge === null) 0 else edge.dependencies.size
+	}
+
+	override getPackages() { graph.vertexSet }
+
+	override getSuccessors(String sourcePackage)
+	{
+		graph.outgoingEdgesOf(sourcePackage).map[e | graph.getEdgeTarget(e)]
+	}
+
 	/**
-	 * JGraphT ne répète pas le premier noeud du cycle en fin de liste.
-	 * Par exemple, un cycle A >> B >> A est représenté par A >> B.
-	 * Il faut ajouter le premier noeud en fin de liste pour être conforme à l'interface
+	 * Les cycles de JGraphT (TiernanSimpleCycles...) ne sont ni bornés ni interruptibles :
+	 * la recherche est faite par un CyclesFinder (Tarjan puis Johnson).
 	 */	
  	override findSimpleCycles() 
 	{ 
-		val cycles = tiernan.findSimpleCycles
-		
-		val newCycles = new LinkedList<List<String>>
-		for (c : cycles)
-		{
-			val newC = new LinkedList<String>
-			newC.addAll(c)
-			newC.add(c.head)
-			newCycles.add(newC)
-		}
-		return newCycles
+		new CyclesFinder(this).findSimpleCycles
 	}
-	
-	private def getTiernan() { new TiernanSimpleCycles<String, JGraphTDependencyEdge>(graph) }
-//	private def getJohnson() { new JohnsonSimpleCycles<String, JGraphTDependencyEdge>(graph) }
-//	private def getSzwarcfiterLauer() { new SzwarcfiterLauerSimpleCycles<String, JGraphTDependencyEdge>(graph) }
-//	private def getTarjan() { new TarjanSimpleCycles<String, JGraphTDependencyEdge>(graph) }
 }
 
 class JGraphTDependencyEdge extends DefaultEdge
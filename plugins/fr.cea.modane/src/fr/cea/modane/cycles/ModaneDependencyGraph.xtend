@@ -9,18 +9,17 @@
  *******************************************************************************/
 package fr.cea.modane.cycles
 
-import java.util.HashMap
+import java.util.LinkedHashMap
 import java.util.LinkedList
 import java.util.List
 import org.eclipse.xtend.lib.annotations.Data
 
 /**
  * Implémentation simple de l'interface DependencyGraph.
- * La recherche de cycles n'est pas optimale.
  */
-class ModaneDependencyGraph implements DependencyGraph
+class ModaneDependencyGraph implements MutableDependencyGraph
 {
-	val nodesByName = new HashMap<String, Node>
+	val nodesByName = new LinkedHashMap<String, Node>
 	
 	def getNodes() { nodesByName.values }
 	def getNode(String nodeName) { nodesByName.get(nodeName) }
@@ -58,80 +57,28 @@ class ModaneDependencyGraph implements DependencyGraph
 		}
 		return null
 	}
-	
-	/**
-	 * Recherche les cycles dans un graphe.
-	 * Ne retourne pas forcément la totalité des cycles car un cycle
-	 * peut en masquer un autre. Mais, comme l'objectif est de supprimer
-	 * les cycles, à terme ils seront tous trouvés.
-	 */	
- 	override findSimpleCycles() 
-	{
-		val cycles = new LinkedList<List<Node>>
-		
-		for (node : nodes)
-		{
-			val cycle = prof(node, node, new HashMap<Node, Boolean>)
-			if (cycle !== null && !cycles.exists[c | areSameCycles(c, cycle)]) cycles += cycle
-		}
 
-		return cycles.map[ cycle | cycle.map[ node | node.name ]]
-	}
-	
-	/** marks est le tableau des sommets marqués comme parcourus */
-	private def List<Node> prof(Node startNode, Node currentNode, HashMap<Node, Boolean> marks)
+	override getNbDependencies(String sourcePackage, String targetPackage)
 	{
-		marks.put(currentNode, true)
+		getDependencyInfos(sourcePackage, targetPackage)?.size ?: 0
+	}
 
-		// première rencontre de currentNode
-		for (arc : currentNode.outArcs)
-		{
-			if (startNode == arc.endNode) 
-			{
-				// cycle détecté
-				return newArrayList(currentNode, startNode)
-			}
+	override getPackages() { nodesByName.keySet }
 
-			if (!marks.isMarked(arc.endNode)) 
-			{
-				val cycle = prof(startNode, arc.endNode, marks)
-				if (cycle !== null) 
-				{
-					// Un cycle a été rencontré, s en fait partie
-					cycle.add(0, currentNode)
-					return cycle
-				}
-			} 
-		}
-		
-		// Pas de cycle détecté
-		return null
-	}
-	
-	private def isMarked(HashMap<Node, Boolean> marks, Node node)
+	override getSuccessors(String sourcePackage)
 	{
-		marks.get(node) ?: false
+		val sourceNode = sourcePackage.node
+		if (sourceNode === null) #[] else sourceNode.outArcs.map[a | a.endNode.name]
 	}
 	
-	/** Regarde si les cycles sont identiques par permutation circulaire */
-	private def areSameCycles(List<Node> c1, List<Node> c2)
+	/**
+	 * Recherche les cycles élémentaires du graphe : composantes fortement connexes
+	 * puis énumération des cycles de chaque composante.
+	 * @see CyclesFinder
+	 */	
+ 	override findSimpleCycles() 
 	{
-		if (c1.size != c2.size) return false
-		
-		var targetIndex = c2.indexOf(c1.head) 
-		if (targetIndex == -1) return false
-		
-		// recherche de la permutation
-		var index = 0		
-		while (index < c1.size-1)
-		{
-			index = index + 1
-			targetIndex = (targetIndex + 1) % c1.size 
-			if (!c1.get(index).equals(c2.get(targetIndex))) return false
-		}
-		
-		// cycle2 est une permutation circulaire de cycle 1
-		return true
+		new CyclesFinder(this).findSimpleCycles
 	}
 }
 
@@ -0,0 +1,235 @@
+/*******************************************************************************
+ * Copyright (c) 2022 CEA
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * Contributors: see AUTHORS file
+ *******************************************************************************/
+package fr.cea.modane.generator
+
+import fr.cea.modane.generator.cmake.CMakeFiles
+import fr.cea.modane.modane.Interface
+import fr.cea.modane.modane.ModaneElement
+import fr.cea.modane.modane.ModaneModel
+import java.io.File
+import java.io.FileReader
+import java.io.FileWriter
+import java.math.BigInteger
+import java.nio.charset.StandardCharsets
+import java.nio.file.Files
+import java.nio.file.StandardCopyOption
+import java.security.MessageDigest
+import java.util.ArrayDeque
+import java.util.ArrayList
+import java.util.HashMap
+import java.util.HashSet
+import java.util.List
+import java.util.Properties
+import org.eclipse.emf.ecore.EObject
+import org.eclipse.emf.ecore.EReference
+import org.eclipse.emf.ecore.util.EcoreUtil
+import org.eclipse.xtend.lib.annotations.Data
+import org.osgi.framework.FrameworkUtil
+
+import static extension fr.cea.modane.EObjectExtensions.*
+import static extension fr.cea.modane.InterfaceExtensions.*
+import static extension fr.cea.modane.ModaneElementExtensions.*
+
+/**
+ * Manifeste de la génération incrémentale, stocké dans le répertoire de sortie.
+ * Pour chaque élément généré, il contient une empreinte de son contenu sémantique
+ * (l'élément, les éléments qu'il référence transitivement, les options de génération
+ * et la version du générateur), les fichiers qu'il déclare pour CMake et tous les
+ * fichiers qu'il a générés. Un élément dont l'empreinte n'a pas changé et dont tous
+ * les fichiers existent n'est pas regénéré. Supprimer le fichier force une génération complète.
+ */
+class GenerationManifest
+{
+	public static val FileName = '.modane.manifest'
+	public static val FileTitle = 'Manifeste de génération Modane'
+
+	/** A incrémenter quand les templates changent sans changement de version du plugin */
+	static val GeneratorVersion = 'modane-generator-2'
+	static val FieldSeparator = ';'
+	static val FileNameSeparator = ','
+
+	val String outputPath
+	val String fileName
+	val entries = new Properties
+	/** Empreintes propres des éléments du modèle en cours de génération (cf. startModel) */
+	val elementDigests = new HashMap<ModaneElement, ElementDigest>
+
+	new(String outputPath)
+	{
+		this.outputPath = outputPath
+		fileName = outputPath + '/' + FileName
+		val file = new File(fileName)
+		if (file.exists)
+		{
+			val reader = new FileReader(file)
+			try entries.load(reader) finally reader.close
+		}
+	}
+
+	/**
+	 * Début de la génération d'un modèle : les entrées des éléments qui n'existent plus
+	 * dans le modèle sont supprimées. Les empreintes mémorisées sont oubliées car le modèle
+	 * précédent a pu être transformé pendant sa génération (services par défaut...).
+	 */
+	def startModel(ModaneModel model)
+	{
+		elementDigests.clear
+		val keys = new HashSet<String>
+		for (elt : model.elements) keys += elt.key
+		for (key : new ArrayList(entries.stringPropertyNames))
+			if (key.modelName == model.name && !keys.contains(key))
+				entries.remove(key)
+	}
+
+	/**
+	 * Retourne les fichiers CMake de l'élément s'il a déjà été généré avec la même empreinte
+	 * et que tous ses fichiers existent encore, null s'il doit être (re)généré.
+	 */
+	def getUnchangedCMakeFiles(ModaneElement elt, String fingerprint)
+	{
+		val entry = entries.getProperty(elt.key)
+		if (entry === null) return null
+		val fields = entry.split(FieldSeparator, -1)
+		if (fields.length != 4 || fields.get(0) != fingerprint) return null
+		if (fields.get(3).toFileNames.exists[f | !new File(outputPath, f).exists]) return null
+
+		val cmakeFiles = new CMakeFiles
+		cmakeFiles.axlFilesForCMake += fields.get(1).toFileNames
+		cmakeFiles.cppFilesForCMake += fields.get(2).toFileNames
+		return cmakeFiles
+	}
+
+	def update(ModaneElement elt, String fingerprint, CMakeFiles cmakeFiles, List<String> generatedFiles)
+	{
+		val axlFiles = cmakeFiles.axlFilesForCMake.join(FileNameSeparator)
+		val cppFiles = cmakeFiles.cppFilesForCMake.join(FileNameSeparator)
+		val files = generatedFiles.join(FileNameSeparator)
+		entries.setProperty(elt.key, fingerprint + FieldSeparator + axlFiles + FieldSeparator + cppFiles + FieldSeparator + files)
+	}
+
+	/** Écriture dans un fichier temporaire puis renommage : le manifeste n'est jamais partiellement écrit */
+	def save()
+	{
+		val file = new File(fileName)
+		val tmp = File::createTempFile(FileName, '.tmp', file.parentFile)
+		try
+		{
+			val writer = new FileWriter(tmp)
+			try entries.store(writer, FileTitle) finally writer.close
+			Files::move(tmp.toPath, file.toPath, StandardCopyOption::REPLACE_EXISTING, StandardCopyOption::ATOMIC_MOVE)
+		}
+		finally
+		{
+			tmp.delete
+		}
+	}
+
+	/**
+	 * Calcule l'empreinte d'un élément : version du générateur, options de génération et
+	 * empreintes propres de l'élément et des éléments qu'il référence transitivement
+	 * (interfaces, structures, énumérations, variables...). L'empreinte propre d'un élément,
+	 * calculée une seule fois par modèle, couvre ses attributs et références et ceux de son contenu.
+	 */
+	def computeFingerprint(ModaneElement elt, GenerationOptions options)
+	{
+		val digest = MessageDigest::getInstance('SHA-256')
+		digest.feed(GeneratorVersion)
+		digest.feed(bundleVersion)
+		digest.feed(options.fingerprint)
+
+		val visited = new HashSet<ModaneElement>
+		val toVisit = new ArrayDeque<ModaneElement>
+		visited += elt
+		toVisit += elt
+		while (!toVisit.empty)
+		{
+			val current = toVisit.removeFirst
+			val elementDigest = current.elementDigest
+			digest.feed(current.key)
+			digest.feed(elementDigest.digest)
+			for (successor : elementDigest.successors)
+				if (visited.add(successor)) toVisit += successor
+		}
+		return new BigInteger(1, digest.digest).toString(16)
+	}
+
+	/**
+	 * Empreinte propre d'un élément et éléments qu'il référence directement.
+	 * Pour les interfaces, les réalisations sont aussi prises en compte car elles
+	 * apparaissent dans le code généré de l'interface et des propriétés qui la référencent.
+	 */
+	private def getElementDigest(ModaneElement elt)
+	{
+		var elementDigest = elementDigests.get(elt)
+		if (elementDigest === null)
+		{
+			val digest = MessageDigest::getInstance('SHA-256')
+			val successors = new ArrayList<ModaneElement>
+			elt.feed(digest, successors)
+			for (o : elt.eAllContents.toIterable) o.feed(digest, successors)
+			if (elt instanceof Interface)
+			{
+				digest.feed('concrete=' + elt.concrete)
+				for (r : elt.allServiceRealisations + elt.allModuleRealisations)
+					digest.feed('realisation=' + r.key)
+			}
+			elementDigest = new ElementDigest(new BigInteger(1, digest.digest).toString(16), successors)
+			elementDigests.put(elt, elementDigest)
+		}
+		return elementDigest
+	}
+
+	private static def feed(EObject o, MessageDigest digest, List<ModaneElement> successors)
+	{
+		digest.feed(o.eClass.name)
+		for (a : o.eClass.EAllAttributes.filter[!derived && !transient])
+			digest.feed(a.name + '=' + o.eGet(a))
+
+		for (r : o.eClass.EAllReferences.filter[!containment && !container && !derived && !transient])
+			for (target : o.getTargets(r))
+			{
+				digest.feed(r.name + '->' + EcoreUtil::getURI(target))
+				val targetElt = target.modaneParent
+				if (targetElt !== null) successors += targetElt
+			}
+	}
+
+	private static def List<EObject> getTargets(EObject o, EReference r)
+	{
+		val value = o.eGet(r)
+		if (value === null) #[]
+		else if (r.many) value as List<EObject>
+		else #[value as EObject]
+	}
+
+	private static def feed(MessageDigest digest, String s)
+	{
+		digest.update(s.getBytes(StandardCharsets::UTF_8))
+		digest.update(0 as byte)
+	}
+
+	/** Version du plugin, qualifier compris, vide hors OSGi */
+	private static def getBundleVersion()
+	{
+		val bundle = FrameworkUtil::getBundle(GenerationManifest)
+		if (bundle === null) '' else bundle.version.toString
+	}
+
+	private static def getKey(ModaneElement it) { eClass.name + ':' + model.name + '.' + name }
+	private static def getModelName(String key) { key.substring(key.indexOf(':') + 1, key.lastIndexOf('.')) }
+	private static def toFileNames(String s) { s.split(FileNameSeparator).filter[!empty] }
+}
+
+@Data
+package class ElementDigest
+{
+	val String digest
+	val List<ModaneElement> successors
+}
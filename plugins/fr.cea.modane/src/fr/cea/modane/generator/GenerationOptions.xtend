@@ -55,7 +55,24 @@ class GenerationOptions
 	def setMajorCodeVersion(int value) { pties.setProperty(MajorCodeVersionPty, value.toString) }
 	def setMinorCodeVersion(int value) { pties.setProperty(MinorCodeVersionPty, value.toString) }
 
-	def load(File file) { pties.load(new FileReader(file)) }
-	def load(String fileName) { pties.load(new FileReader(fileName)) }
-	def save(String fileName) { pties.store(new FileWriter(fileName), FileTitle) }
+	/** Chaîne représentant les options positionnées, indépendante de l'ordre de lecture */
+	def getFingerprint() { pties.stringPropertyNames.sort.map[k | k + '=' + pties.getProperty(k)].join(';') }
+
+	def load(Properties values) { pties.putAll(values) }
+	def load(File file) { load(readProperties(file)) }
+	def load(String fileName) { load(new File(fileName)) }
+
+	def save(String fileName)
+	{
+		val writer = new FileWriter(fileName)
+		try pties.store(writer, FileTitle) finally writer.close
+	}
+
+	static def readProperties(File file)
+	{
+		val values = new Properties
+		val reader = new FileReader(file)
+		try values.load(reader) finally reader.close
+		return values
+	}
 }
\ No newline at end of file
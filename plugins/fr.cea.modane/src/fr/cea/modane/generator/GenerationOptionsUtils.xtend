@@ -13,11 +13,21 @@ import com.google.inject.Inject
 import fr.cea.modane.generator.ModaneGeneratorMessageDispatcher.MessageType
 import fr.cea.modane.modane.ModaneModel
 import java.io.File
+import java.util.Properties
+import java.util.concurrent.ConcurrentHashMap
+import org.eclipse.xtend.lib.annotations.Data
 
 import static extension fr.cea.modane.ModaneModelExtensions.*
 
 class GenerationOptionsUtils
 {
+	/**
+	 * Options cumulées par fichier de configuration, partagées par toutes les instances.
+	 * Une entrée est valide tant que le fichier n'a pas changé (date, taille)
+	 * et que les options de son répertoire parent n'ont pas été relues.
+	 */
+	static val DirectoryOptionsCache = new ConcurrentHashMap<String, DirectoryOptions>
+
 	@Inject ModaneGeneratorMessageDispatcher messageDispatcher
 
 	/**
@@ -31,32 +41,51 @@ class GenerationOptionsUtils
 	def createGenerationOptionsFor(String homePath, ModaneModel model)
 	{
 		val options = new GenerationOptions
-		fillOptions(homePath, model.outputPath, options)
+		options.load(getOptions(homePath, model.outputPath))
 		return options
 	}
 
-	private def void fillOptions(String homePath, String relativePath, GenerationOptions options)
+	/** Les options retournées sont partagées par le cache et ne doivent pas être modifiées */
+	private def Properties getOptions(String homePath, String relativePath)
 	{
-		if (relativePath.nullOrEmpty) tryToLoadOptions(homePath, options)
-		else
+		var Properties parentOptions = null
+		var path = homePath
+		if (!relativePath.nullOrEmpty)
 		{
 			// recherche d'un fichier de configuration dans les répertoires parents
 			val lastDirIndex = relativePath.lastIndexOf('/')
-			if (lastDirIndex == -1) fillOptions(homePath, null, options)
-			else fillOptions(homePath, relativePath.substring(0, lastDirIndex), options) 
-			// surcharge des options s'il y a un fichier local
-			tryToLoadOptions(homePath + '/' + relativePath, options)
+			if (lastDirIndex == -1) parentOptions = getOptions(homePath, null)
+			else parentOptions = getOptions(homePath, relativePath.substring(0, lastDirIndex))
+			path = homePath + '/' + relativePath
 		}
-	}
 
-	private def void tryToLoadOptions(String path, GenerationOptions options)
-	{
 		val file = new File(path, GenerationOptions::PtyFileName)
-		if (file !== null && file.exists) 
+		val lastModified = file.lastModified
+		val length = file.length
+		val cached = DirectoryOptionsCache.get(file.path)
+		if (cached !== null && cached.parentOptions === parentOptions && cached.lastModified == lastModified && cached.length == length)
+			return cached.options
+
+		// surcharge des options s'il y a un fichier local
+		val options = new Properties
+		if (parentOptions !== null) options.putAll(parentOptions)
+		if (file.exists)
 		{
 			if (messageDispatcher !== null)
 				messageDispatcher.post(MessageType.Exec, 'Reading property file: ' + file.path)
-			options.load(file)
+			options.putAll(GenerationOptions::readProperties(file))
 		}
+		DirectoryOptionsCache.put(file.path, new DirectoryOptions(parentOptions, lastModified, length, options))
+		return options
 	}
-}
\ No newline at end of file
+}
+
+/** Options lues pour un répertoire, avec la date et la taille de son fichier de propriétés */
+@Data
+package class DirectoryOptions
+{
+	val Properties parentOptions
+	val long lastModified
+	val long length
+	val Properties options
+}
@@ -0,0 +1,48 @@
+/*******************************************************************************
+ * Copyright (c) 2022 CEA
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * Contributors: see AUTHORS file
+ *******************************************************************************/
+package fr.cea.modane.generator
+
+import java.util.ArrayList
+import org.eclipse.xtend.lib.annotations.Accessors
+import org.eclipse.xtext.generator.IFileSystemAccess
+
+/**
+ * Délégation à un IFileSystemAccess avec mémorisation des noms des fichiers générés,
+ * utilisée pour connaître les fichiers d'un élément en génération incrémentale.
+ * Une instance ne sert qu'à un élément et n'est utilisée que par un thread.
+ */
+class RecordingFileSystemAccess implements IFileSystemAccess
+{
+	val IFileSystemAccess fsa
+	@Accessors(PUBLIC_GETTER) val fileNames = new ArrayList<String>
+
+	new(IFileSystemAccess fsa)
+	{
+		this.fsa = fsa
+	}
+
+	override generateFile(String fileName, CharSequence contents)
+	{
+		fileNames += fileName
+		fsa.generateFile(fileName, contents)
+	}
+
+	override generateFile(String fileName, String outputConfigurationName, CharSequence contents)
+	{
+		fileNames += fileName
+		fsa.generateFile(fileName, outputConfigurationName, contents)
+	}
+
+	override deleteFile(String fileName)
+	{
+		fileNames -= fileName
+		fsa.deleteFile(fileName)
+	}
+}
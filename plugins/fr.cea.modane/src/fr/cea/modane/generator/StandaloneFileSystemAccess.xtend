@@ -12,7 +12,11 @@ package fr.cea.modane.generator
 import com.google.common.collect.Maps
 import com.google.inject.Inject
 import fr.cea.modane.generator.ModaneGeneratorMessageDispatcher.MessageType
+import java.io.File
+import java.io.FileInputStream
+import java.io.InputStreamReader
 import java.util.Set
+import java.util.concurrent.atomic.AtomicInteger
 import org.eclipse.xtend.lib.annotations.Accessors
 import org.eclipse.xtext.generator.IFileSystemAccess
 import org.eclipse.xtext.generator.IOutputConfigurationProvider
@@ -27,12 +31,58 @@ import org.eclipse.xtext.util.RuntimeIOException
  */
 class StandaloneFileSystemAccess extends JavaIoFileSystemAccess 
 {
+	static val BufferSize = 8192
+	static val WriteBehindQueueCapacity = 256
+
 	@Inject IOutputConfigurationProvider configurationProvider
 	@Accessors(PUBLIC_GETTER, PRIVATE_SETTER) @Inject ModaneGeneratorMessageDispatcher messageDispatcher
 
+	/** Compteurs de fichiers écrits, inchangés et non écrasés depuis la dernière initialisation */
+	val nbWrittenFiles = new AtomicInteger
+	val nbUnchangedFiles = new AtomicInteger
+	val nbSkippedFiles = new AtomicInteger
+
+	/** Écriture différée des fichiers, null en mode synchrone */
+	WriteBehindFileWriter writer = null
+
 	def initialize()
 	{
 		outputConfigurations = configurationProvider.outputConfigurations.toMap
+		nbWrittenFiles.set(0)
+		nbUnchangedFiles.set(0)
+		nbSkippedFiles.set(0)
+	}
+
+	def getNbWrittenFiles() { nbWrittenFiles.get }
+	def getNbUnchangedFiles() { nbUnchangedFiles.get }
+	def getNbSkippedFiles() { nbSkippedFiles.get }
+
+	/**
+	 * Active l'écriture différée : la comparaison avec les fichiers existants et l'écriture
+	 * sont faites par nbThreads threads pendant que la génération continue.
+	 * La méthode awaitWrites doit être appelée en fin de génération.
+	 */
+	def startWriteBehind(int nbThreads)
+	{
+		writer = new WriteBehindFileWriter(nbThreads, WriteBehindQueueCapacity, messageDispatcher)
+	}
+
+	/** Barrière de fin de génération : attend la fin des écritures différées */
+	def awaitWrites()
+	{
+		if (writer !== null)
+		{
+			try writer.await finally writer = null
+		}
+	}
+
+	/** Abandon des écritures différées en attente, sans lever d'exception. Sans effet après awaitWrites */
+	def cancelWrites()
+	{
+		if (writer !== null)
+		{
+			try writer.cancel finally writer = null
+		}
 	}
 
 	/** 
@@ -47,25 +97,33 @@ class StandaloneFileSystemAccess extends JavaIoFileSystemAccess
 		outputConfigurations.values.forEach[x | x.outputDirectory = absoluteOutputPath]	
 	}
 
+	/** Synchronisée car appelée par les threads de StandaloneGenerator en génération parallèle */
 	override generateFile(String fileName, String outputConfigName, CharSequence contents) throws RuntimeIOException 
 	{
-		val outputConfig = super.getOutputConfig(outputConfigName)
-		if (outputConfig !== null)
+		synchronized (this)
 		{
-			val file = super.getFile(fileName, outputConfigName)
-			// Génération sauf si le fichier existe et que overrideExistingResources vaut faux
-			if (outputConfig.overrideExistingResources || !file.exists)
+			val outputConfig = super.getOutputConfig(outputConfigName)
+			if (outputConfig !== null)
 			{
-				// Si le contenu du fichier n'a pas changé, pas de regénération
-				if (file.exists && isEqual(contents, fileName))
-					messageDispatcher.post(MessageType::Exec, "File contents unchanged, no overwrite: " + fileName)
+				val file = super.getFile(fileName, outputConfigName)
+				// Génération sauf si le fichier existe et que overrideExistingResources vaut faux
+				if (outputConfig.overrideExistingResources || !file.exists)
 				{
-					messageDispatcher.post(MessageType.Exec, "Generate file: " + fileName)
-					super.generateFile(fileName, outputConfigName, contents)
+					val encoding = getEncoding(getURI(fileName, outputConfigName))
+					if (writer === null)
+						writeIfChanged(fileName, outputConfigName, file, encoding, contents)
+					else
+					{
+						val snapshot = contents.toString
+						writer.submit(fileName, [writeIfChanged(fileName, outputConfigName, file, encoding, snapshot)])
+					}
+				}
+				else
+				{
+					messageDispatcher.post(MessageType.Exec, "File already exists, no overwrite: " + fileName)
+					nbSkippedFiles.incrementAndGet
 				}
 			}
-			else
-				messageDispatcher.post(MessageType.Exec, "File already exists, no overwrite: " + fileName)
 		}
 	}
 
@@ -75,10 +133,62 @@ class StandaloneFileSystemAccess extends JavaIoFileSystemAccess
 		Maps::uniqueIndex(configurations, [ OutputConfiguration from | from.name ]);
 	}
 
-	/** Can be optimized in case of big files in using a BufferedReader to read the file */
-	private def boolean isEqual(CharSequence newContent, String fullFileName)
+	/**
+	 * Écriture par JavaIoFileSystemAccess, en mode synchrone comme en écriture différée,
+	 * pour que postProcess et les traces soient appliqués dans les deux cas.
+	 */
+	private def writeIfChanged(String fileName, String outputConfigName, File file, String encoding, CharSequence contents)
 	{
-		val oldContent = super.readTextFile(fullFileName)
-		return (CharSequence.compare(newContent, oldContent) == 0)
+		// Si le contenu du fichier n'a pas changé, pas de regénération
+		// pour que les dates de modification utilisées par make/ccache restent stables
+		if (file.exists && isEqual(contents, file, encoding))
+		{
+			messageDispatcher.post(MessageType::Exec, "File contents unchanged, no overwrite: " + fileName)
+			nbUnchangedFiles.incrementAndGet
+		}
+		else
+		{
+			messageDispatcher.post(MessageType.Exec, "Generate file: " + fileName)
+			super.generateFile(fileName, outputConfigName, contents)
+			nbWrittenFiles.incrementAndGet
+		}
+	}
+
+	/** Bilan des fichiers traités depuis la dernière initialisation */
+	def postStatistics()
+	{
+		messageDispatcher.post(MessageType.Exec, "Files written: " + nbWrittenFiles + ", unchanged: " + nbUnchangedFiles + ", already existing: " + nbSkippedFiles)
+	}
+
+	/** 
+	 * Comparaison du nouveau contenu avec le fichier existant par blocs,
+	 * sans charger le fichier en mémoire.
+	 */
+	private def boolean isEqual(CharSequence newContent, File file, String encoding)
+	{
+		val reader = new InputStreamReader(new FileInputStream(file), encoding)
+		try
+		{
+			val buffer = newCharArrayOfSize(BufferSize)
+			var offset = 0
+			var nbRead = reader.read(buffer)
+			while (nbRead != -1)
+			{
+				if (offset + nbRead > newContent.length) return false
+				var i = 0
+				while (i < nbRead)
+				{
+					if (buffer.get(i) != newContent.charAt(offset + i)) return false
+					i++
+				}
+				offset += nbRead
+				nbRead = reader.read(buffer)
+			}
+			return offset == newContent.length
+		}
+		finally
+		{
+			reader.close
+		}
 	}
 }
\ No newline at end of file
@@ -22,10 +22,15 @@ import fr.cea.modane.modane.ModaneElement
 import fr.cea.modane.modane.ModaneModel
 import java.util.ArrayList
 import java.util.HashMap
+import java.util.LinkedHashMap
 import java.util.List
+import java.util.concurrent.Callable
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.Executors
 import org.eclipse.emf.common.util.URI
 import org.eclipse.emf.ecore.resource.Resource
 import org.eclipse.emf.ecore.resource.ResourceSet
+import org.eclipse.emf.ecore.util.EcoreUtil
 import org.eclipse.emf.transaction.RecordingCommand
 import org.eclipse.emf.transaction.Transaction
 import org.eclipse.emf.transaction.TransactionalCommandStack
@@ -45,6 +50,28 @@ class StandaloneGenerator
 	@Inject XsdGenerator xsdGenerator
 	@Inject CMakeListsGenerator cMakeGenerator
 
+	/** 
+	 * Nombre de threads utilisés pour générer les éléments d'un modèle.
+	 * Avec la valeur 1 (défaut), la génération est séquentielle.
+	 */
+	@Accessors int nbThreads = 1
+
+	/** 
+	 * Génération incrémentale : seuls les éléments dont l'empreinte a changé depuis
+	 * la dernière génération sont regénérés (cf. GenerationManifest).
+	 */
+	@Accessors boolean incremental = false
+
+	/** 
+	 * Nombre de threads d'écriture des fichiers générés (cf. WriteBehindFileWriter).
+	 * Avec la valeur 0 (défaut), les fichiers sont écrits par le thread de génération.
+	 */
+	@Accessors int nbWriterThreads = 0
+
+	/** Dernier élément généré avec l'option generateXsd et ses options, pour le fichier global.xsd */
+	ModaneElement xsdGlobalContext = null
+	GenerationOptions xsdGlobalOptions = null
+
 	// Utilisé par les tests
 	def static createInstance()
 	{
@@ -72,39 +99,75 @@ class StandaloneGenerator
 	{
 		// Positionnement du répertoire de sortie du générateur fourni en paramètre
 		fsa.initialize(absoluteOutputPath)
+		val manifest = if (incremental) new GenerationManifest(fsa.outputPath) else null
+		if (nbWriterThreads > 0) fsa.startWriteBehind(nbWriterThreads)
 
-		// Validation des fichiers et génération C++ et AXL
-		// On ne peut pas valider en mode standalone pour des histoires de scope provider
-		val models = modaneResources.models
-		val cMakeFilesByModel = new HashMap<ModaneModel, CMakeFiles>
-		for (model : models) 
+		try
 		{
-			// on ne génère que les éléments dans le package demandé ou ses sous-packages
-			if (packageToGenerate.nullOrEmpty || model.name.startsWith(packageToGenerate)) 
+			// Validation des fichiers et génération C++ et AXL
+			// On ne peut pas valider en mode standalone pour des histoires de scope provider
+			val models = modaneResources.models
+			val cMakeFilesByModel = new HashMap<ModaneModel, CMakeFiles>
+			for (model : models) 
 			{
-				val cmakeFiles = doGenerate(model, fsa)
-				cMakeFilesByModel.put(model, cmakeFiles)
-				//if (generateCMakeLists) cMakeGenerator.generate(fsa, model.name, model.getSubModelsNames(models), cmakeFiles)
+				// on ne génère que les éléments dans le package demandé ou ses sous-packages
+				if (packageToGenerate.nullOrEmpty || model.name.startsWith(packageToGenerate)) 
+				{
+					val cmakeFiles = doGenerate(model, fsa, manifest)
+					cMakeFilesByModel.put(model, cmakeFiles)
+					//if (generateCMakeLists) cMakeGenerator.generate(fsa, model.name, model.getSubModelsNames(models), cmakeFiles)
+				}
+				else
+					messageDispatcher.post(MessageType.Start, "Package to generate: " + packageToGenerate + " => nothing to do for " + model.name)
 			}
-			else
-				messageDispatcher.post(MessageType.Start, "Package to generate: " + packageToGenerate + " => nothing to do for " + model.name)
-		}
 
-		if (generateCMakeLists)
-		{
-			for (model : cMakeFilesByModel.keySet) 
+			if (generateCMakeLists)
 			{
-				val subModelNames = model.getSubModelsNames(models)
-				val cmakeFiles = cMakeFilesByModel.get(model)
-				if (!subModelNames.empty || !cmakeFiles.empty)
-					cMakeGenerator.generate(fsa, model.name, subModelNames, cmakeFiles)
+				for (model : cMakeFilesByModel.keySet) 
+				{
+					val subModelNames = model.getSubModelsNames(models)
+					val cmakeFiles = cMakeFilesByModel.get(model)
+					if (!subModelNames.empty || !cmakeFiles.empty)
+						cMakeGenerator.generate(fsa, model.name, subModelNames, cmakeFiles)
+				}
 			}
+
+			generateXsdGlobalFile
+
+			// barrière : attente de la fin des écritures différées
+			fsa.awaitWrites
 		}
+		finally
+		{
+			// en cas d'erreur de génération, arrêt des écritures sans masquer l'erreur
+			fsa.cancelWrites
+		}
+
+		// le manifeste n'est écrit que si tous les fichiers ont pu être écrits
+		manifest?.save
+		fsa.postStatistics
 	}
 
 	def generate(ModaneModel model)
 	{ 
-		doGenerate(model, fsa)
+		doGenerate(model, fsa, null)
+	}
+
+	/**
+	 * Génération du fichier global.xsd regroupant les modules, une seule fois
+	 * après la génération des modèles, si au moins un modèle a l'option generateXsd.
+	 */
+	def generateXsdGlobalFile()
+	{
+		if (xsdGlobalContext !== null)
+		{
+			val context = xsdGenerator.createContext(xsdGlobalOptions.langFr)
+			context.acquire
+			try xsdGenerator.generateGlobalFile(xsdGlobalContext, fsa)
+			finally context.release
+			xsdGlobalContext = null
+			xsdGlobalOptions = null
+		}
 	}
 
 	private def getModels(List<Resource> resources)
@@ -128,15 +191,17 @@ class StandaloneGenerator
 		return subModelNames
 	}
 
-	private def doGenerate(ModaneModel model, IFileSystemAccess2 fsa)
+	private def doGenerate(ModaneModel model, IFileSystemAccess2 fsa, GenerationManifest manifest)
 	{
-		val cmakeFiles = new CMakeFiles
-
 		val optionsPath = Utils::getAbsolutePath(fsa.getURI('.'))
 		val options = goUtils.createGenerationOptionsFor(optionsPath, model)
 
-		cppGenerator.generationOptions = options
-		xsdGenerator.langFr = options.langFr
+		// contexte du fichier global.xsd pris avant l'ajout éventuel des services par défaut
+		if (options.generateXsd && !model.elements.empty)
+		{
+			xsdGlobalContext = model.elements.last
+			xsdGlobalOptions = options
+		}
 
 		val domain = TransactionUtil::getEditingDomain(model)
 		var RecordingCommand cmd = null
@@ -164,16 +229,98 @@ class StandaloneGenerator
 			}
 		}
 
-		for (elt : model.elements) doGenerate(elt, fsa, options, cmakeFiles)
+		// En mode incrémental, les éléments dont l'empreinte n'a pas changé ne sont pas regénérés
+		val cmakeFilesByElt = new LinkedHashMap<ModaneElement, CMakeFiles>
+		val fingerprints = new HashMap<ModaneElement, String>
+		val eltsToGenerate = new ArrayList<ModaneElement>
+		manifest?.startModel(model)
+		for (elt : model.elements)
+		{
+			var CMakeFiles unchangedCMakeFiles = null
+			if (manifest !== null)
+			{
+				val fingerprint = manifest.computeFingerprint(elt, options)
+				fingerprints.put(elt, fingerprint)
+				unchangedCMakeFiles = manifest.getUnchangedCMakeFiles(elt, fingerprint)
+			}
+
+			// la clé est insérée dans tous les cas pour conserver l'ordre des éléments
+			cmakeFilesByElt.put(elt, unchangedCMakeFiles)
+			if (unchangedCMakeFiles === null) eltsToGenerate += elt
+			else messageDispatcher.post(MessageType.Exec, "Element unchanged since last generation: " + elt.name)
+		}
+
+		// en mode incrémental, les fichiers générés par chaque élément sont mémorisés
+		val eltFsas = eltsToGenerate.map[(if (manifest === null) fsa else new RecordingFileSystemAccess(fsa)) as IFileSystemAccess].toList
+		val generatedCMakeFiles = 
+			if (nbThreads > 1 && eltsToGenerate.size > 1) doGenerateInParallel(model, eltsToGenerate, eltFsas, options)
+			else (0..<eltsToGenerate.size).map[i | doGenerate(eltsToGenerate.get(i), eltFsas.get(i), options)].toList
+
+		for (i : 0..<eltsToGenerate.size)
+		{
+			val elt = eltsToGenerate.get(i)
+			cmakeFilesByElt.put(elt, generatedCMakeFiles.get(i))
+			if (manifest !== null)
+				manifest.update(elt, fingerprints.get(elt), generatedCMakeFiles.get(i), (eltFsas.get(i) as RecordingFileSystemAccess).fileNames)
+		}
+
+		val cmakeFiles = new CMakeFiles
+		for (eltCMakeFiles : cmakeFilesByElt.values)
+		{
+			cmakeFiles.axlFilesForCMake += eltCMakeFiles.axlFilesForCMake
+			cmakeFiles.cppFilesForCMake += eltCMakeFiles.cppFilesForCMake
+		}
 
 		if (domain !== null && cmd !== null && stack.undoCommand === cmd) stack.undo()
 		return cmakeFiles
 	}
 
-	private def doGenerate(ModaneElement elt, IFileSystemAccess fsa, GenerationOptions options, CMakeFiles cmakeFiles)
+	private def doGenerate(ModaneElement elt, IFileSystemAccess fsa, GenerationOptions options)
 	{
+		val cmakeFiles = new CMakeFiles
 		axlGenerator.generateFiles(elt, fsa, cmakeFiles.axlFilesForCMake)
-		cppGenerator.generateFiles(elt, fsa, cmakeFiles.cppFilesForCMake)
-		if (options.generateXsd) xsdGenerator.generateFiles(elt,fsa)
+		// les contextes de génération ne sont courants que pendant la génération de l'élément
+		val cppContext = cppGenerator.createContext(options)
+		cppContext.acquire
+		try cppGenerator.generateFiles(elt, fsa, cmakeFiles.cppFilesForCMake)
+		finally cppContext.release
+		if (options.generateXsd)
+		{
+			val xsdContext = xsdGenerator.createContext(options.langFr)
+			xsdContext.acquire
+			try xsdGenerator.generateFiles(elt,fsa)
+			finally xsdContext.release
+		}
+		return cmakeFiles
+	}
+
+	/**
+	 * Génération des éléments répartie sur nbThreads threads.
+	 * Chaque tâche dispose de ses propres contextes de génération (cf. GenerationContext::current)
+	 * et de ses propres listes de fichiers CMake, retournées dans l'ordre des éléments
+	 * pour obtenir le même résultat qu'en séquentiel.
+	 */
+	private def doGenerateInParallel(ModaneModel model, List<ModaneElement> elts, List<IFileSystemAccess> fsas, GenerationOptions options)
+	{
+		// Les proxies sont résolus avant la génération : la résolution paresseuse d'EMF n'est pas thread-safe
+		val rs = model.eResource?.resourceSet
+		if (rs === null) EcoreUtil::resolveAll(model)
+		else EcoreUtil::resolveAll(rs)
+
+		val executor = Executors::newFixedThreadPool(nbThreads)
+		try
+		{
+			val tasks = (0..<elts.size).map[i |
+				[doGenerate(elts.get(i), fsas.get(i), options)] as Callable<CMakeFiles>
+			].toList
+			val cmakeFiles = new ArrayList<CMakeFiles>
+			for (future : executor.invokeAll(tasks))
+				cmakeFiles += try future.get catch (ExecutionException e) throw e.cause
+			return cmakeFiles
+		}
+		finally
+		{
+			executor.shutdownNow
+		}
 	}
 }
\ No newline at end of file
@@ -0,0 +1,105 @@
+/*******************************************************************************
+ * Copyright (c) 2022 CEA
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * Contributors: see AUTHORS file
+ *******************************************************************************/
+package fr.cea.modane.generator
+
+import fr.cea.modane.generator.ModaneGeneratorMessageDispatcher.MessageType
+import java.util.concurrent.ArrayBlockingQueue
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.Future
+import java.util.concurrent.ThreadPoolExecutor
+import java.util.concurrent.ThreadPoolExecutor.CallerRunsPolicy
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+import org.eclipse.xtext.util.RuntimeIOException
+
+/**
+ * Écriture différée des fichiers générés par un pool de threads borné.
+ * Quand la file d'attente est pleine, le thread de génération écrit lui-même.
+ * Les écritures d'un même fichier sont sérialisées et, si plusieurs contenus
+ * sont en attente pour un même fichier, seul le dernier est écrit.
+ * Les erreurs sont transmises au ModaneGeneratorMessageDispatcher et la méthode
+ * await, barrière de fin de génération, lève une exception s'il y en a eu.
+ */
+class WriteBehindFileWriter
+{
+	val ModaneGeneratorMessageDispatcher messageDispatcher
+	val ThreadPoolExecutor executor
+	val pendingWrites = new ConcurrentHashMap<String, ()=>void>
+	val fileLocks = new ConcurrentHashMap<String, Object>
+	val submittedWrites = new ConcurrentLinkedQueue<Future<?>>
+	val nbErrors = new AtomicInteger
+
+	new(int nbThreads, int queueCapacity, ModaneGeneratorMessageDispatcher messageDispatcher)
+	{
+		this.messageDispatcher = messageDispatcher
+		this.executor = new ThreadPoolExecutor(nbThreads, nbThreads, 0L, TimeUnit::MILLISECONDS,
+			new ArrayBlockingQueue<Runnable>(queueCapacity), new CallerRunsPolicy)
+	}
+
+	/** Programme l'écriture du fichier : write est exécutée par un thread du pool */
+	def submit(String fileName, ()=>void write)
+	{
+		if (pendingWrites.put(fileName, write) === null)
+			submittedWrites += executor.submit([doWrite(fileName)] as Runnable)
+	}
+
+	/** Attend la fin de toutes les écritures programmées et arrête le pool */
+	def await()
+	{
+		try
+		{
+			var future = submittedWrites.poll
+			while (future !== null)
+			{
+				future.get
+				future = submittedWrites.poll
+			}
+		}
+		finally
+		{
+			executor.shutdown
+		}
+
+		if (nbErrors.get > 0)
+			throw new RuntimeIOException(nbErrors.get + " generated file(s) could not be written")
+	}
+
+	/**
+	 * Abandon des écritures en attente et arrêt du pool, après la fin des écritures en cours.
+	 * Les threads ne sont pas interrompus pour ne pas laisser de fichier tronqué : les tâches
+	 * restantes n'écrivent rien puisque leur contenu a été retiré de pendingWrites.
+	 * Les erreurs d'écriture ne sont pas levées : elles ont déjà été transmises au dispatcher.
+	 */
+	def cancel()
+	{
+		pendingWrites.clear
+		executor.shutdown
+		try executor.awaitTermination(1, TimeUnit::MINUTES)
+		catch (InterruptedException e) Thread::currentThread.interrupt
+	}
+
+	private def doWrite(String fileName)
+	{
+		synchronized (fileLocks.computeIfAbsent(fileName, [new Object]))
+		{
+			val write = pendingWrites.remove(fileName)
+			try
+			{
+				write?.apply
+			}
+			catch (Exception e)
+			{
+				nbErrors.incrementAndGet
+				messageDispatcher.post(MessageType.Error, "File can not be written: " + fileName + " (" + e.message + ")")
+			}
+		}
+	}
+}
@@ -46,30 +46,30 @@ class AxlGenerator
 	private def dispatch getFileContent(Service elt) { elt.content }
 	private def dispatch getFileContent(ModaneElement elt) { null }
 
+	/**
+	 * Suppression des espaces (voir la feuille XSL ci-dessous) et indentation en une seule
+	 * transformation. La feuille est compilée une fois et chaque thread réutilise son Transformer.
+	 */
 	private def beautifyXml(String content)
 	{
-		// premiere transformation avec la feuille XSL (voir constante
-		// ci-dessous) pour virer les espaces
-		val transformer = TransformerFactory::newInstance.newTransformer(new StreamSource(new StringReader(XslStripSpace)))
-		transformer.setOutputProperty(OutputKeys.ENCODING, "utf-8")
-		val source1 = new StreamSource(new StringReader(content.toString))
-		val result1 = new StreamResult(new StringWriter)
-		transformer.transform(source1, result1)
-
-		// deuxieme transformation pour indenter
-		val indenter = TransformerFactory::newInstance.newTransformer
-		indenter.setOutputProperty(OutputKeys.INDENT, "yes")
-		indenter.setOutputProperty(OutputKeys.ENCODING, "utf-8")
-		indenter.setOutputProperty("{http://xml.apache.org/xslt}indent-amount", "2")
-		val source2 = new StreamSource(new StringReader(result1.writer.toString))
-		val result2 = new StreamResult(new StringWriter)
-		indenter.transform(source2, result2)
-
-		return result2.writer.toString
+		val result = new StreamResult(new StringWriter)
+		Beautifier.get.transform(new StreamSource(new StringReader(content)), result)
+		return result.writer.toString
 	}
 
+	static val Beautifier = ThreadLocal::withInitial
+	([
+		val transformer = StripSpaceTemplates.newTransformer
+		transformer.setOutputProperty(OutputKeys.INDENT, "yes")
+		transformer.setOutputProperty(OutputKeys.ENCODING, "utf-8")
+		transformer.setOutputProperty("{http://xml.apache.org/xslt}indent-amount", "2")
+		transformer
+	])
+
 	final static String XslStripSpace = #["<xsl:stylesheet xmlns:xsl='http://www.w3.org/1999/XSL/Transform'>"
 			, "<xsl:output method='xml' omit-xml-declaration='no'/>" , "<xsl:strip-space elements='*'/>"
 			, "<xsl:template match='@*|node()'>" , "<xsl:copy>" , "<xsl:apply-templates select='@*|node()'/>" , "</xsl:copy>"
 			, "</xsl:template>" , "</xsl:stylesheet>"].join
+
+	static val StripSpaceTemplates = TransformerFactory::newInstance.newTemplates(new StreamSource(new StringReader(XslStripSpace)))
 }
\ No newline at end of file
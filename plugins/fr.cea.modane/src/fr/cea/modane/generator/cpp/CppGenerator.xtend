@@ -31,7 +31,8 @@ class CppGenerator
 {
 	@Inject ModaneGeneratorMessageDispatcher dispatcher
 
-	def setGenerationOptions(GenerationOptions options)
+	/** Contexte à rendre courant (GenerationContext::acquire) pendant generateFiles */
+	def createContext(GenerationOptions options)
 	{
 		new GenerationContext(options)
 	}
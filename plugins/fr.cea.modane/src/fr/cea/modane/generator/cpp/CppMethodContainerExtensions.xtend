@@ -32,7 +32,7 @@ class CppMethodContainerExtensions
 {
 	static def compile(CppMethodContainer it, IFileSystemAccess fsa, Collection<String> cmakeFiles)
 	{
-		val context = GenerationContext::Current
+		val context = GenerationContext::current
 
 		//
 		// le fichier avec les classes de variables
@@ -213,7 +213,7 @@ class CppMethodContainerExtensions
 	 */
 	private static def getMethodsToOverwrite(CppMethodContainer it)
 	{
-		allMethods.filter[x | GenerationContext::Current.generationOptions.variableAsArgs || x.hasSupport || x.itemTypeSpecialized]
+		allMethods.filter[x | GenerationContext::current.generationOptions.variableAsArgs || x.hasSupport || x.itemTypeSpecialized]
 	}
 
 	private static def getDeveloperHeaderContent(CppMethodContainer it)
@@ -309,7 +309,7 @@ class CppMethodContainerExtensions
 
 	private static def isComponent(CppMethodContainer it)
 	{
-		if (GenerationContext::Current.generationOptions.alwaysMaterialMng)
+		if (GenerationContext::current.generationOptions.alwaysMaterialMng)
 			return true
 		else
 		{
@@ -336,7 +336,7 @@ class CppMethodContainerExtensions
 	private static def getDeveloperClassNameAndAddInclude(Interface i) 
 	{ 
 		val _i = new InterfaceCppMethodContainer(i)
-		GenerationContext::Current.addInclude(_i.outputPath, _i.developerHeaderFileName)
+		GenerationContext::current.addInclude(_i.outputPath, _i.developerHeaderFileName)
 		_i.developerClassName
 	}
 
@@ -37,7 +37,7 @@ class CppMethodExtensions
 
 	static def insertDebugMsg() 
 	'''
-		«IF GenerationContext::Current.generationOptions.traceMsg»info() << A_FUNCINFO;«ENDIF»
+		«IF GenerationContext::current.generationOptions.traceMsg»info() << A_FUNCINFO;«ENDIF»
 	'''
 	
 	static def getVarClassContent(CppMethod it)
@@ -69,7 +69,7 @@ class CppMethodExtensions
 	
 	static def isItemTypeSpecialized(CppMethod it)	{ support == FunctionItemType::ITEM_TYPE_SPECIALIZED }
 	static def hasSupport(CppMethod it) { support != FunctionItemType::NO_ITEM && !isItemTypeSpecialized }
-	static def hasParallelLoops(CppMethod it) { GenerationContext::Current.generationOptions.parallelLoops && !sequential && hasSupport }
+	static def hasParallelLoops(CppMethod it) { GenerationContext::current.generationOptions.parallelLoops && !sequential && hasSupport }
 	static def getCallerSignature(CppMethod it) '''«returnTypeName» «name»(«callerArgs.join(', ')»)«IF const» const«ENDIF»'''
 	static def getItemTypeSpecializedClassName(CppMethod it) { containerName + name.toFirstUpper }
 	static def getItemTypeSpecializedClassHeaderFileName(CppMethod it) { GenerationContext::GenFilePrefix + itemTypeSpecializedClassName + GenerationContext::HeaderExtension }
@@ -131,7 +131,7 @@ class CppMethodExtensions
 		«callerSignature»«IF override» override«ENDIF»
 		{
 		  «insertDebugMsg»
-		  «IF GenerationContext::Current.generationOptions.variableAsArgs»«varClassInstance»«ENDIF»
+		  «IF GenerationContext::current.generationOptions.variableAsArgs»«varClassInstance»«ENDIF»
 		  «IF itemTypeSpecialized»
 		  T* t = static_cast<T*>(this);
 		  «itemTypeSpecializedClassName»<T> fclass(«getArgSequence('t').join(', ')»); 
@@ -178,7 +178,7 @@ class CppMethodExtensions
 		
 		  private:
 		    T* m_srv;
-		    «IF GenerationContext::Current.generationOptions.variableAsArgs»«varClassName» m_vars;«ENDIF»
+		    «IF GenerationContext::current.generationOptions.variableAsArgs»«varClassName» m_vars;«ENDIF»
 		    «FOR a : argDefinitions»
 		    «a.typeName» «a.fieldName»;
 		    «ENDFOR» 
@@ -189,7 +189,7 @@ class CppMethodExtensions
 	{
 		val l = new ArrayList<String>
 		if (!prefix.nullOrEmpty) l+= prefix
-		if (GenerationContext::Current.generationOptions.variableAsArgs) l += 'm_vars(vars)'
+		if (GenerationContext::current.generationOptions.variableAsArgs) l += 'm_vars(vars)'
 		l += argDefinitions.map[a | a.fieldName + '(' + a.name + ')'].toList
 		return l 
 	}
@@ -199,7 +199,7 @@ class CppMethodExtensions
 	{
 		val l = new ArrayList<String>
 		if (!prefix.nullOrEmpty) l+= prefix
-		if (GenerationContext::Current.generationOptions.variableAsArgs) l += 'vars'
+		if (GenerationContext::current.generationOptions.variableAsArgs) l += 'vars'
 		argDefinitions.forEach[a | l += a.name]
 		return l
 	}	
@@ -220,7 +220,7 @@ class CppMethodExtensions
 		val l = new ArrayList<String>
 		if (!prefix.nullOrEmpty) l+= prefix
 		if (hasSupport) l += 'const ' + support.literal + ' ' + support.literal.toLowerCase
-		if (GenerationContext::Current.generationOptions.variableAsArgs) l += varClassName + '& vars'
+		if (GenerationContext::current.generationOptions.variableAsArgs) l += varClassName + '& vars'
 		if (withDefaultValue) l += argDefinitions.argsWithDefaultValue
 		else argDefinitions.forEach[x | l += x.typeName + ' ' + x.name]
 		return l
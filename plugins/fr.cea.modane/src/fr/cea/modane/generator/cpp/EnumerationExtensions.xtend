@@ -20,7 +20,7 @@ class EnumerationExtensions
 {
 	static def compile(Enumeration it, IFileSystemAccess fsa, Collection<String> cmakeFiles)
 	{
-		val context = GenerationContext::Current
+		val context = GenerationContext::current
 		context.newFile(outputPath, referencedFileName, false, false)
 		cmakeFiles += referencedFileName
 		context.addContent(content)
@@ -12,6 +12,7 @@ package fr.cea.modane.generator.cpp
 import fr.cea.modane.ModaneOutputConfigurationProvider
 import fr.cea.modane.generator.GenerationOptions
 import java.util.ArrayList
+import org.eclipse.xtend2.lib.StringConcatenation
 import org.eclipse.xtext.generator.IFileSystemAccess
 
 class GenerationContext
@@ -27,12 +28,14 @@ class GenerationContext
 		
 	'''	
 
-	public static GenerationContext Current = null
+	/** Contexte courant propre à chaque thread de génération */
+	static val currentContext = new ThreadLocal<GenerationContext>
 	public val GenerationOptions generationOptions
+	GenerationContext outer
 
 	String path
 	String name
-	String content
+	StringConcatenation content
 	ArrayList<String> includes
 	ArrayList<String> arcaneIncludes
 	ArrayList<String> usedNs
@@ -40,14 +43,32 @@ class GenerationContext
 	new(GenerationOptions options)
 	{
 		this.generationOptions = options
-		Current = this
+	}
+
+	static def getCurrent() { currentContext.get }
+
+	/**
+	 * Rend ce contexte courant pour le thread appelant, jusqu'à l'appel de release
+	 * dans un bloc finally. Le contexte englobant éventuel est alors restauré.
+	 */
+	def acquire()
+	{
+		outer = currentContext.get
+		currentContext.set(this)
+	}
+
+	def release()
+	{
+		if (outer === null) currentContext.remove
+		else currentContext.set(outer)
+		outer = null
 	}
 
 	def newFile(String path, String name, boolean withIncludes, boolean withComponent)
 	{
 		this.path = path
 		this.name = name
-		this.content = ""
+		this.content = new StringConcatenation
 		this.arcaneIncludes = new ArrayList<String>
 		this.includes = new ArrayList<String>
 		this.usedNs = new ArrayList<String>
@@ -78,7 +99,8 @@ class GenerationContext
 
 	def getName() { name }
 	def getFullName() { path + '/' + name }
-	def addContent(CharSequence c) { content = content.concat(c.toString) }
+	/** Le template est ajouté par segments : son texte n'est copié qu'à l'écriture du fichier */
+	def addContent(CharSequence c) { content.append(c) }
 	def getNsName() { path.split("/").map[s | s.toFirstUpper].join }
 	def isAUsedNs(String ns) { usedNs.contains(ns) }
 
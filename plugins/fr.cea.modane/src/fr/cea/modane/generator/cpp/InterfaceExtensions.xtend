@@ -27,7 +27,7 @@ class InterfaceExtensions extends fr.cea.modane.InterfaceExtensions
 {
 	static def compile(Interface it, IFileSystemAccess fsa, Collection<String> cmakeFiles)
 	{
-		val context = GenerationContext::Current
+		val context = GenerationContext::current
 		context.newFile(outputPath, referencedFileName, true, component)
 		cmakeFiles += referencedFileName
 		context.addContent(interfaceContent)
@@ -85,7 +85,7 @@ class InterfaceExtensions extends fr.cea.modane.InterfaceExtensions
 
 	static private def isComponent(Interface it)
 	{
-		if (GenerationContext::Current.generationOptions.alwaysMaterialMng)
+		if (GenerationContext::current.generationOptions.alwaysMaterialMng)
 			return true
 		else 
 		{
@@ -29,7 +29,7 @@ class ReferenceableExtensions
  
  	static def dispatch getReferencedNameWithNs(Referenceable it)
  	{
-		val context = GenerationContext::Current
+		val context = GenerationContext::current
 		if (context.name.endsWith(GenerationContext::HeaderExtension)) context.addInclude(outputPath, referencedFileName)
 		if (nsName != context.nsName && !context.isAUsedNs(nsName))
 			'::' + nsName + '::' + referencedName
@@ -39,7 +39,7 @@ class ReferenceableExtensions
  	
  	static def dispatch getReferencedNameWithNs(Legacy it)
  	{
-		val context = GenerationContext::Current
+		val context = GenerationContext::current
 		if (context.name.endsWith(GenerationContext::HeaderExtension) && !originFile.nullOrEmpty) context.addInclude(originFile)
 		if (originNamespace.nullOrEmpty) referencedName
 		else '::' + originNamespace + '::' + referencedName
@@ -21,7 +21,7 @@ class StructExtensions
 {
 	static def compile(Struct it, IFileSystemAccess fsa, Collection<String> cmakeFiles)
 	{
-		val context = GenerationContext::Current
+		val context = GenerationContext::current
 		context.newFile(outputPath, referencedFileName, true, false)
 		cmakeFiles += referencedFileName
 		context.addContent(interfaceContent)
@@ -92,7 +92,7 @@ class StructExtensions
 	
  	private static def getDeveloperNameWithNs(Struct it)
  	{
-		val context = GenerationContext::Current
+		val context = GenerationContext::current
 		context.addInclude(outputPath, developerFileName)
 		if (nsName != context.nsName && !context.isAUsedNs(nsName))
 			'::' + nsName + '::' + developerName
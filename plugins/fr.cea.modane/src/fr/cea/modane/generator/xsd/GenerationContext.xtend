@@ -11,6 +11,7 @@ package fr.cea.modane.generator.xsd
 
 import fr.cea.modane.modane.ModaneElement
 import java.util.ArrayList
+import org.eclipse.xtend2.lib.StringConcatenation
 import org.eclipse.xtext.generator.IFileSystemAccess
 import org.eclipse.xtext.scoping.IScopeProvider
 
@@ -20,27 +21,48 @@ class GenerationContext
 {
 	public static val FileExtension = ".xsd"
 
-	public static GenerationContext Current = null
+	/** Contexte courant propre à chaque thread de génération */
+	static val currentContext = new ThreadLocal<GenerationContext>
+
 	public val boolean langFr
 	public val IScopeProvider scopeProvider
+	GenerationContext outer
 
 	String outputPath
 	String fileNameWithoutExtension
-	String content
+	StringConcatenation content
 	ArrayList<ModaneElement> imports
 
 	new(boolean langFr, IScopeProvider scopeProvider)
 	{ 
 		this.langFr = langFr
 		this.scopeProvider = scopeProvider
-		Current = this
+	}
+
+	static def getCurrent() { currentContext.get }
+
+	/**
+	 * Rend ce contexte courant pour le thread appelant, jusqu'à l'appel de release
+	 * dans un bloc finally. Le contexte englobant éventuel est alors restauré.
+	 */
+	def acquire()
+	{
+		outer = currentContext.get
+		currentContext.set(this)
+	}
+
+	def release()
+	{
+		if (outer === null) currentContext.remove
+		else currentContext.set(outer)
+		outer = null
 	}
 
 	def newFile(String outputPath, String fileNameWithoutExtension)
 	{
 		this.outputPath = outputPath
 		this.fileNameWithoutExtension = fileNameWithoutExtension
-		this.content = ""
+		this.content = new StringConcatenation
 		this.imports = new ArrayList<ModaneElement>
 	}
 
@@ -48,11 +70,11 @@ class GenerationContext
 	{
 		this.outputPath = element.outputPath
 		this.fileNameWithoutExtension = element.name
-		this.content = ""
+		this.content = new StringConcatenation
 		this.imports = new ArrayList<ModaneElement>
 	}
 
-	def addContent(CharSequence c) { content = content.concat(c.toString) }
+	def addContent(CharSequence c) { content.append(c) }
 	def addImport(ModaneElement e) { if (!imports.contains(e)) imports += e }
 
 	def generate(IFileSystemAccess fsa)
@@ -57,7 +57,7 @@ class PtyExtensions
 	private static def dispatch getContent(Pty it, Reference t)
 	{
 		// Legacy non géré pour l'instant
-		if (!(t.target instanceof Legacy)) GenerationContext::Current.addImport(t.target)
+		if (!(t.target instanceof Legacy)) GenerationContext::current.addImport(t.target)
 		getReferenceContent(t.target)
 	}
 
@@ -120,7 +120,7 @@ class PtyExtensions
 	/** Fonction utilitaire qui devrait probablement être ailleurs... */
 	static def getAllServicesImplementing(Interface interf, EObject context)
 	{
-		val gc = GenerationContext::Current
+		val gc = GenerationContext::current
 		val services = Utils::getAllElementsOfType(gc.scopeProvider, context, ModanePackage::eINSTANCE.service)
 		val candidates = new LinkedHashSet<Service>()
 		for (s : services)
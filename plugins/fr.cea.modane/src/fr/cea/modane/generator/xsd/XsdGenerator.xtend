@@ -34,14 +34,15 @@ class XsdGenerator
 {
 	@Inject IScopeProvider scopeProvider
 
-	def setLangFr(boolean langFr)
+	/** Contexte à rendre courant (GenerationContext::acquire) pendant generateFiles et generateGlobalFile */
+	def createContext(boolean langFr)
 	{
 		new GenerationContext(langFr,scopeProvider)
 	}
 
 	def generateFiles(ModaneElement elt, IFileSystemAccess fsa)
 	{
-		val context = GenerationContext::Current
+		val context = GenerationContext::current
 		context.newFile(elt)
 		val content = elt.fileContent
 		if (content !== null)
@@ -49,19 +50,22 @@ class XsdGenerator
 			context.addContent(content)
 			context.generate(fsa)
 		}
+	}
 
-		/* 
-		 * Génération d'un fichier contenant l'ensemble des modules en attendant de faire la boucle en temps.
-		 * A chaque fois qu'un nouveau module est créé, il faut refaire le fichier.
-		 * Le problème est qu'il est difficile de savoir quand un module est créé avec le Build incrémental.
-		 * Pour l'instant, on génère le fichier à chaque fois... pas terrible mais normalement temporaire...
-		 */
-		context.newFile('', 'global')
-		val objects = Utils::getAllElementsOfType(scopeProvider, elt, ModanePackage::eINSTANCE.module)
+	/** 
+	 * Génération du fichier contenant l'ensemble des modules visibles depuis l'élément context.
+	 * Appelée une seule fois, après la génération de tous les éléments, car la recherche
+	 * des modules parcourt tout le scope.
+	 */
+	def generateGlobalFile(ModaneElement context, IFileSystemAccess fsa)
+	{
+		val gc = GenerationContext::current
+		gc.newFile('', 'global')
+		val objects = Utils::getAllElementsOfType(scopeProvider, context, ModanePackage::eINSTANCE.module)
 		val modules = objects.map[ m | m as Module]
-		modules.forEach[m | context.addImport(m)]
-		context.addContent(modules.globalFileContent)
-		context.generate(fsa)
+		modules.forEach[m | gc.addImport(m)]
+		gc.addContent(modules.globalFileContent)
+		gc.generate(fsa)
 	}
 
 	private def dispatch getFileContent(Module it) { getContent(allProperties) }
@@ -18,7 +18,7 @@ class XsdUtils
 {
 	static def getXsdName(String name, String frName)
 	{
-		if (GenerationContext::Current.langFr && !frName.nullOrEmpty) frName.separateWith('-')
+		if (GenerationContext::current.langFr && !frName.nullOrEmpty) frName.separateWith('-')
 		else name.separateWith('-')
 	}
 	
@@ -129,11 +129,11 @@ class XsdUtils
 		
 		
 	
-	private static def getCaseName() { if (GenerationContext::Current.langFr) "cas" else "case" }
-	private static def getMeshName() { if (GenerationContext::Current.langFr) "maillage" else "mesh" }
-	private static def getTitleName() { if (GenerationContext::Current.langFr) "titre" else "title" }
-	private static def getTimeLoopName() { if (GenerationContext::Current.langFr) "boucle-en-temps" else "timeloop" }
-	private static def getParameterName() { if (GenerationContext::Current.langFr) "parametre" else "parameter" }
+	private static def getCaseName() { if (GenerationContext::current.langFr) "cas" else "case" }
+	private static def getMeshName() { if (GenerationContext::current.langFr) "maillage" else "mesh" }
+	private static def getTitleName() { if (GenerationContext::current.langFr) "titre" else "title" }
+	private static def getTimeLoopName() { if (GenerationContext::current.langFr) "boucle-en-temps" else "timeloop" }
+	private static def getParameterName() { if (GenerationContext::current.langFr) "parametre" else "parameter" }
 
 	private static def getGlobalFileContent(Module it)
 	'''
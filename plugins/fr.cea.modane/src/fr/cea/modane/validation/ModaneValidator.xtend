@@ -10,7 +10,7 @@
 package fr.cea.modane.validation
 
 import com.google.inject.Inject
-import fr.cea.modane.Utils
+import fr.cea.modane.ModaneIndex
 import fr.cea.modane.modane.Arg
 import fr.cea.modane.modane.ArgDefinition
 import fr.cea.modane.modane.Direction
@@ -43,6 +43,9 @@ import fr.cea.modane.modane.VarReference
 import fr.cea.modane.modane.Variable
 import fr.cea.modane.modane.VariableMultiplicity
 import java.util.ArrayList
+import java.util.HashMap
+import java.util.concurrent.atomic.AtomicReference
+import org.eclipse.emf.ecore.EObject
 import org.eclipse.emf.ecore.EReference
 import org.eclipse.emf.ecore.EStructuralFeature
 import org.eclipse.xtext.scoping.IScopeProvider
@@ -59,6 +62,28 @@ class ModaneValidator extends UniqueNameValidator
 
 	@Inject
 	IScopeProvider scopeProvider
+
+	/**
+	 * Index des éléments du scope global, conservé dans le cache de la resource.
+	 * Le cache n'est vidé que par les modifications de la resource : l'index est aussi
+	 * reconstruit quand un objet Modane d'une autre resource du ResourceSet a changé.
+	 */
+	private def getScopeIndex(EObject context)
+	{
+		val resource = context.eResource
+		if (resource === null) return new ScopeElementsIndex(scopeProvider, context)
+
+		val stamp = ModaneIndex::getContentStamp(context)
+		val cached = cache.get(ScopeElementsIndex, resource, [| new AtomicReference<Pair<Long, ScopeElementsIndex>>])
+		var current = cached.get
+		if (current === null || current.key != stamp)
+		{
+			current = stamp -> new ScopeElementsIndex(scopeProvider, context)
+			cached.set(current)
+		}
+		return current.value
+	}
+
 	/* ----- REGLES DE NOMMAGE ----- */
 
 	public static val INVALID_NAME = 'InvalidName'
@@ -145,13 +170,10 @@ class ModaneValidator extends UniqueNameValidator
 	@Check
 	def checkModelAlreadyExist(ModaneModel it)
 	{
-		for (m : Utils::getAllElementsOfType(scopeProvider, it, ModanePackage::eINSTANCE.modaneModel).filter[x | x.eResource != eResource])
+		for (m : scopeIndex.getModels(name).filter[x | x.eResource != eResource])
 		{
-			if ((m as ModaneModel).name == name)
-			{
-				error(m.eResource.URI.lastSegment + ' : ' + MODEL_ALREADY_EXIST, ModanePackage.Literals::MODANE_MODEL__NAME)
-				return false
-			}
+			error(m.eResource.URI.lastSegment + ' : ' + MODEL_ALREADY_EXIST, ModanePackage.Literals::MODANE_MODEL__NAME)
+			return false
 		}
 		return true
 	}
@@ -298,10 +320,9 @@ class ModaneValidator extends UniqueNameValidator
 	{
 		if (!namefr.nullOrEmpty && !(it instanceof Service && !(it as Service).singleton))
 		{
-			for (o : Utils::getAllElementsOfType(scopeProvider, it, ModanePackage::eINSTANCE.serviceOrModule))
+			for (sorm : scopeIndex.getServicesOrModulesByNameFr(namefr))
 			{
-				val sorm = o as ServiceOrModule
-				if (sorm != it && sorm.namefr == namefr)
+				if (sorm != it)
 				{
 					error(sorm.model.name + "::" + sorm.name + " : " + ModaneValidator.UNIQUE_NAME_FR, ModanePackage.Literals::SERVICE_OR_MODULE__NAMEFR)
 					return false
@@ -364,9 +385,7 @@ class ModaneValidator extends UniqueNameValidator
 			else if (type instanceof Reference && (type as Reference).target instanceof Interface)
 			{
 				val interf = (type as Reference).target as Interface
-				val services = Utils::getAllElementsOfType(scopeProvider, it, ModanePackage::eINSTANCE.service).filter(Service)
-
-				val service = services.findFirst[s | s.model.name + '.' + s.name == defaultValue]
+				val service = scopeIndex.getService(defaultValue)
 				if (service === null)
 				{
 					error(CORRECT_PTY_DEFAULT_VALUE, ModanePackage.Literals::PTY__DEFAULT_VALUE)
@@ -545,15 +564,19 @@ class ModaneValidator extends UniqueNameValidator
 
 	private def multipleIdenticalVarRef(Iterable<VarReference> vars, EReference literal)
 	{
+		val counts = new HashMap<Pair<Direction, Variable>, Integer>
+		for (v : vars) counts.merge(v.direction -> v.variable, 1, [a, b | a + b])
+
 		var ok = true
-		for (i : 0..<vars.length)
+		var i = 0
+		for (v1 : vars)
 		{
-			val v1 = vars.get(i)
-			if (vars.exists[v2 | v1 != v2 && v1.direction == v2.direction && v1.variable == v2.variable])
+			if (counts.get(v1.direction -> v1.variable) > 1)
 			{
 				warning("La variable '" + v1.variable.name + "' est référencée plusieurs fois en '" + v1.direction.literal + "'", literal, i)
 				ok = false
 			}
+			i++
 		}
 		return ok
 	}
@@ -0,0 +1,99 @@
+/*******************************************************************************
+ * Copyright (c) 2022 CEA
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * Contributors: see AUTHORS file
+ *******************************************************************************/
+package fr.cea.modane.validation
+
+import fr.cea.modane.Utils
+import fr.cea.modane.modane.ModaneModel
+import fr.cea.modane.modane.ModanePackage
+import fr.cea.modane.modane.Service
+import fr.cea.modane.modane.ServiceOrModule
+import java.util.ArrayList
+import java.util.HashMap
+import java.util.LinkedHashSet
+import java.util.List
+import org.eclipse.emf.ecore.EClass
+import org.eclipse.emf.ecore.EObject
+import org.eclipse.emf.ecore.util.EcoreUtil
+import org.eclipse.xtext.resource.IEObjectDescription
+import org.eclipse.xtext.scoping.IScopeProvider
+
+import static extension fr.cea.modane.ModaneElementExtensions.*
+
+/**
+ * Index des éléments visibles depuis une resource, utilisé par les règles de validation
+ * qui comparent un élément à tous les éléments du scope global.
+ * Le scope n'est parcouru qu'une fois et les éléments d'un type donné ne sont résolus
+ * qu'à la première interrogation de ce type. Le ModaneValidator conserve l'index dans
+ * le cache de la resource, vidé à chaque modification de celle-ci, et le reconstruit
+ * quand une autre resource Modane du ResourceSet est modifiée (ModaneIndex::getContentStamp).
+ */
+class ScopeElementsIndex
+{
+	val EObject context
+	val Iterable<IEObjectDescription> descriptions
+	val elementsByType = new HashMap<EClass, LinkedHashSet<EObject>>
+	var HashMap<String, List<ModaneModel>> modelsByName
+	var HashMap<String, List<ServiceOrModule>> servicesOrModulesByNameFr
+	var HashMap<String, Service> servicesByQualifiedName
+
+	new(IScopeProvider scopeProvider, EObject context)
+	{
+		this.context = context
+		this.descriptions = Utils::getScopeElements(scopeProvider, context).toList
+	}
+
+	/** Équivalent de Utils::getAllElementsOfType */
+	def synchronized getElementsOfType(EClass c)
+	{
+		var elements = elementsByType.get(c)
+		if (elements === null)
+		{
+			elements = new LinkedHashSet<EObject>
+			for (desc : descriptions.filter[e | e.EObjectOrProxy.eClass == c || e.EObjectOrProxy.eClass.EAllSuperTypes.contains(c)])
+				elements += EcoreUtil::resolve(desc.EObjectOrProxy, context)
+			elementsByType.put(c, elements)
+		}
+		return elements
+	}
+
+	def synchronized List<ModaneModel> getModels(String name)
+	{
+		if (modelsByName === null)
+		{
+			modelsByName = new HashMap<String, List<ModaneModel>>
+			for (m : getElementsOfType(ModanePackage::eINSTANCE.modaneModel).filter(ModaneModel))
+				modelsByName.computeIfAbsent(m.name, [new ArrayList<ModaneModel>]) += m
+		}
+		modelsByName.getOrDefault(name, #[])
+	}
+
+	def synchronized List<ServiceOrModule> getServicesOrModulesByNameFr(String namefr)
+	{
+		if (servicesOrModulesByNameFr === null)
+		{
+			servicesOrModulesByNameFr = new HashMap<String, List<ServiceOrModule>>
+			for (sorm : getElementsOfType(ModanePackage::eINSTANCE.serviceOrModule).filter(ServiceOrModule))
+				servicesOrModulesByNameFr.computeIfAbsent(sorm.namefr, [new ArrayList<ServiceOrModule>]) += sorm
+		}
+		servicesOrModulesByNameFr.getOrDefault(namefr, #[])
+	}
+
+	/** Retourne le service de nom NomDeModele.Nom, null s'il n'existe pas */
+	def synchronized getService(String qualifiedName)
+	{
+		if (servicesByQualifiedName === null)
+		{
+			servicesByQualifiedName = new HashMap<String, Service>
+			for (s : getElementsOfType(ModanePackage::eINSTANCE.service).filter(Service))
+				servicesByQualifiedName.putIfAbsent(s.model.name + '.' + s.name, s)
+		}
+		servicesByQualifiedName.get(qualifiedName)
+	}
+}
@@ -1,12 +1,15 @@
 package fr.cea.modane.validation
 
+import com.google.inject.Inject
 import fr.cea.modane.modane.ModaneElement
 import fr.cea.modane.modane.ModaneModel
 import fr.cea.modane.modane.ModanePackage
 import fr.cea.modane.modane.NamedElement
+import java.util.HashMap
 import org.eclipse.emf.ecore.EObject
 import org.eclipse.emf.ecore.EStructuralFeature
 import org.eclipse.xtext.EcoreUtil2
+import org.eclipse.xtext.util.IResourceScopeCache
 import org.eclipse.xtext.util.SimpleAttributeResolver
 import org.eclipse.xtext.validation.Check
 
@@ -15,6 +18,9 @@ class UniqueNameValidator extends AbstractModaneValidator
 	public static val DUPLICATE_NAME = "DuplicateName"
 	static def getUniqueNameMsg(String objectName) { "Il existe déjà un élement portant le nom " + objectName }
 
+	/** Cache des resources (OnChangeEvictingCache) : les valeurs sont perdues à chaque modification de la resource */
+	@Inject protected IResourceScopeCache cache
+
 	@Check
 	def dispatch checkUniqueName(ModaneElement it)
 	{
@@ -38,17 +44,27 @@ class UniqueNameValidator extends AbstractModaneValidator
 		val module = EcoreUtil2.getContainerOfType(t, ModaneModel)
 		if (module !== null)
 		{
-			val contents = EcoreUtil2.getAllContentsOfType(module, t.class)
-			for (tx : contents)
+			if (module.nameCounts.getOrDefault(t.class -> name, 0) > 1)
 			{
-				val tx_name = SimpleAttributeResolver.NAME_RESOLVER.apply(tx)
-				if (tx_name.equals(name) && tx !== t)
-				{
-					error(getUniqueNameMsg(name), f, DUPLICATE_NAME)
-					return false
-				}
+				error(getUniqueNameMsg(name), f, DUPLICATE_NAME)
+				return false
 			}
 			return true
 		}
 	}
+
+	/** Nombre d'éléments du modèle par type et par nom, calculé une fois par modification de la resource */
+	private def getNameCounts(ModaneModel module)
+	{
+		if (module.eResource === null) module.computeNameCounts
+		else cache.get(UniqueNameValidator -> module, module.eResource, [| module.computeNameCounts])
+	}
+
+	private def computeNameCounts(ModaneModel module)
+	{
+		val counts = new HashMap<Pair<Class<?>, String>, Integer>
+		for (elt : EcoreUtil2.getAllContentsOfType(module, ModaneElement))
+			counts.merge(elt.class -> SimpleAttributeResolver.NAME_RESOLVER.apply(elt), 1, [a, b | a + b])
+		return counts
+	}
 }
\ No newline at end of file
@@ -0,0 +1,142 @@
+/*******************************************************************************
+ * Copyright (c) 2022 CEA
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * Contributors: see AUTHORS file
+ *******************************************************************************/
+package fr.cea.modane.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
+import org.eclipse.emf.ecore.xmi.impl.XMIResourceFactoryImpl;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import fr.cea.modane.cycles.CompactDependencyGraph;
+import fr.cea.modane.cycles.DependencyInfo;
+import fr.cea.modane.cycles.GraphBuilder;
+import fr.cea.modane.modane.Interface;
+import fr.cea.modane.modane.ModaneFactory;
+import fr.cea.modane.modane.ModaneModel;
+import fr.cea.modane.modane.ModanePackage;
+import fr.cea.modane.modane.Service;
+
+/**
+ * Graphe de dépendances compact construit par GraphBuilder sur deux modèles en mémoire :
+ * - a : interfaces IA1 et IA2 ;
+ * - b : service SB qui implémente IA1 et IA2, interface IB qui hérite de IA1.
+ */
+public class CompactDependencyGraphTestCase
+{
+	private ModaneModel a;
+	private ModaneModel b;
+	private Service sb;
+	private Interface ib;
+
+	@Category(GenerationTests.class)
+	@Test
+	public void testCounts()
+	{
+		final CompactDependencyGraph graph = createGraph(new ResourceSetImpl());
+		assertEquals(Arrays.asList("a", "b"), graph.getPackages());
+		assertEquals(3, graph.getNbDependencies("b", "a"));
+		assertEquals(0, graph.getNbDependencies("a", "b"));
+		assertEquals(0, graph.getNbDependencies("b", "unknown"));
+		assertEquals(Arrays.asList("a"), graph.getSuccessors("b"));
+		assertTrue(graph.getSuccessors("a").isEmpty());
+		assertTrue(graph.getSuccessors("unknown").isEmpty());
+	}
+
+	@Category(GenerationTests.class)
+	@Test
+	public void testDependencyInfos()
+	{
+		final CompactDependencyGraph graph = createGraph(new ResourceSetImpl());
+		assertNull(graph.getDependencyInfos("a", "b"));
+
+		// les DependencyInfo sont reconstruites dans l'ordre d'ajout à partir des fragments
+		final List<DependencyInfo> infos = graph.getDependencyInfos("b", "a");
+		assertEquals(3, infos.size());
+		final ModanePackage pack = ModanePackage.eINSTANCE;
+		assertDependency(infos.get(0), sb, a.getElements().get(0), pack.getServiceOrModule_Interfaces(), 0);
+		assertDependency(infos.get(1), sb, a.getElements().get(1), pack.getServiceOrModule_Interfaces(), 1);
+		assertDependency(infos.get(2), ib, a.getElements().get(0), pack.getInterface_Parents(), 0);
+
+		// un élément supprimé n'est plus retrouvé, le compteur reste celui de la construction
+		b.getElements().remove(ib);
+		assertEquals(2, graph.getDependencyInfos("b", "a").size());
+		assertEquals(3, graph.getNbDependencies("b", "a"));
+	}
+
+	@Category(GenerationTests.class)
+	@Test
+	public void testCollectedResourceSet() throws Exception
+	{
+		ResourceSet resourceSet = new ResourceSetImpl();
+		final CompactDependencyGraph graph = createGraph(resourceSet);
+		final WeakReference<ResourceSet> probe = new WeakReference<>(resourceSet);
+		resourceSet = null;
+		a = null;
+		b = null;
+		sb = null;
+		ib = null;
+		for (int i = 0; i < 20 && probe.get() != null; i++)
+		{
+			System.gc();
+			Thread.sleep(50);
+		}
+		assertNull(probe.get());
+
+		// le graphe ne retient pas les modèles : les compteurs restent, les DependencyInfo sont perdues
+		assertEquals(3, graph.getNbDependencies("b", "a"));
+		assertTrue(graph.getDependencyInfos("b", "a").isEmpty());
+	}
+
+	private CompactDependencyGraph createGraph(ResourceSet resourceSet)
+	{
+		final ModaneFactory factory = ModaneFactory.eINSTANCE;
+		final Interface ia1 = factory.createInterface();
+		ia1.setName("IA1");
+		final Interface ia2 = factory.createInterface();
+		ia2.setName("IA2");
+		sb = factory.createService();
+		sb.setName("SB");
+		sb.getInterfaces().addAll(Arrays.asList(ia1, ia2));
+		ib = factory.createInterface();
+		ib.setName("IB");
+		ib.getParents().add(ia1);
+
+		a = factory.createModaneModel();
+		a.setName("a");
+		a.getElements().addAll(Arrays.asList(ia1, ia2));
+		b = factory.createModaneModel();
+		b.setName("b");
+		b.getElements().addAll(Arrays.asList(sb, ib));
+
+		resourceSet.getResourceFactoryRegistry().getExtensionToFactoryMap().put("xmi", new XMIResourceFactoryImpl());
+		resourceSet.createResource(URI.createURI("a.xmi")).getContents().add(a);
+		resourceSet.createResource(URI.createURI("b.xmi")).getContents().add(b);
+		return new GraphBuilder().createGraph(Arrays.asList(a, b));
+	}
+
+	private static void assertDependency(DependencyInfo info, Object source, Object target, Object reference, int index)
+	{
+		assertSame(source, info.getSourceElement());
+		assertSame(target, info.getTargetElement());
+		assertSame(reference, info.getDependencyElement());
+		assertEquals(index, info.getIndex());
+	}
+}
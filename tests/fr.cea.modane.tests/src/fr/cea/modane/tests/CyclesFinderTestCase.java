@@ -0,0 +1,107 @@
+/*******************************************************************************
+ * Copyright (c) 2022 CEA
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * Contributors: see AUTHORS file
+ *******************************************************************************/
+package fr.cea.modane.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import fr.cea.modane.cycles.CompactDependencyGraph;
+import fr.cea.modane.cycles.CyclesFinder;
+import fr.cea.modane.cycles.DependencyInfo;
+import fr.cea.modane.modane.ModaneFactory;
+import fr.cea.modane.modane.ModanePackage;
+
+/**
+ * Recherche des cycles élémentaires sur de petits graphes de packages.
+ * Le graphe à deux cycles a -> b -> a et a -> b -> c -> a partageant l'arc a -> b
+ * sert aux tests des limites et de l'annulation.
+ */
+public class CyclesFinderTestCase
+{
+	@Category(GenerationTests.class)
+	@Test
+	public void testSelfLoop()
+	{
+		final CompactDependencyGraph graph = createGraph("a", "a", "b", "c");
+		assertEquals(Arrays.asList(Arrays.asList("a", "a")), new CyclesFinder(graph).findSimpleCycles());
+
+		final CyclesFinder finder = new CyclesFinder(graph);
+		finder.setMaxLength(0);
+		assertTrue(finder.findSimpleCycles().isEmpty());
+	}
+
+	@Category(GenerationTests.class)
+	@Test
+	public void testOverlappingCycles()
+	{
+		final CyclesFinder finder = new CyclesFinder(createOverlappingCycles());
+		assertEquals(new HashSet<>(Arrays.asList(Arrays.asList("a", "b", "a"), Arrays.asList("a", "b", "c", "a"))),
+				new HashSet<>(finder.findSimpleCycles()));
+		assertFalse(finder.isLimitReached());
+	}
+
+	@Category(GenerationTests.class)
+	@Test
+	public void testMaxCycles()
+	{
+		final CyclesFinder finder = new CyclesFinder(createOverlappingCycles());
+		finder.setMaxCycles(1);
+		assertEquals(1, finder.findSimpleCycles().size());
+		assertTrue(finder.isLimitReached());
+	}
+
+	@Category(GenerationTests.class)
+	@Test
+	public void testMaxLength()
+	{
+		final CyclesFinder finder = new CyclesFinder(createOverlappingCycles());
+		finder.setMaxLength(2);
+		assertEquals(Arrays.asList(Arrays.asList("a", "b", "a")), finder.findSimpleCycles());
+		assertFalse(finder.isLimitReached());
+	}
+
+	@Category(GenerationTests.class)
+	@Test
+	public void testCancel()
+	{
+		final CyclesFinder finder = new CyclesFinder(createOverlappingCycles());
+		final NullProgressMonitor monitor = new NullProgressMonitor();
+		finder.setMonitor(monitor);
+		final List<List<String>> cycles = new ArrayList<>();
+		finder.findSimpleCycles(c -> { cycles.add(c); monitor.setCanceled(true); });
+		assertEquals(1, cycles.size());
+		assertFalse(finder.isLimitReached());
+	}
+
+	private CompactDependencyGraph createOverlappingCycles()
+	{
+		return createGraph("a", "b", "b", "a", "b", "c", "c", "a");
+	}
+
+	/** Graphe dont les arcs sont donnés par paires source, cible */
+	private CompactDependencyGraph createGraph(String... edges)
+	{
+		final CompactDependencyGraph graph = new CompactDependencyGraph();
+		for (int i = 0; i < edges.length; i += 2)
+			graph.addDependencyInfo(new DependencyInfo(ModaneFactory.eINSTANCE.createInterface(), ModaneFactory.eINSTANCE.createInterface(),
+					ModanePackage.eINSTANCE.getInterface_Parents(), 0, edges[i], edges[i + 1]));
+		return graph;
+	}
+}
@@ -0,0 +1,149 @@
+/*******************************************************************************
+ * Copyright (c) 2022 CEA
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * Contributors: see AUTHORS file
+ *******************************************************************************/
+package fr.cea.modane.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.StringWriter;
+import java.util.Arrays;
+
+import org.eclipse.emf.ecore.EObject;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import fr.cea.modane.cycles.ElementDependencyGraph;
+import fr.cea.modane.cycles.ElementDependencyGraph.ExportFormat;
+import fr.cea.modane.modane.Interface;
+import fr.cea.modane.modane.ModaneFactory;
+import fr.cea.modane.modane.ModaneModel;
+import fr.cea.modane.modane.Module;
+import fr.cea.modane.modane.Service;
+import fr.cea.modane.modane.Struct;
+
+/**
+ * Graphe de dépendances entre éléments sur deux modèles construits en mémoire :
+ * - a : interfaces I1 et I2 qui héritent l'une de l'autre (cycle), structure S isolée ;
+ * - b : service Srv qui implémente deux fois I1, module Mod qui implémente I1 et I2.
+ */
+public class ElementDependencyGraphTestCase
+{
+	private Interface i1;
+	private Interface i2;
+	private Struct s;
+	private Service srv;
+	private Module mod;
+	private ElementDependencyGraph graph;
+
+	@Before
+	public void createGraph()
+	{
+		final ModaneFactory factory = ModaneFactory.eINSTANCE;
+		i1 = factory.createInterface();
+		i1.setName("I1");
+		i2 = factory.createInterface();
+		i2.setName("I2");
+		s = factory.createStruct();
+		s.setName("S");
+		srv = factory.createService();
+		srv.setName("Srv");
+		mod = factory.createModule();
+		mod.setName("Mod");
+
+		i1.getParents().add(i2);
+		i2.getParents().add(i1);
+		srv.getInterfaces().add(i1);
+		srv.getInterfaces().add(i1);
+		mod.getInterfaces().add(i1);
+		mod.getInterfaces().add(i2);
+
+		final ModaneModel a = factory.createModaneModel();
+		a.setName("a");
+		a.getElements().addAll(Arrays.asList(i1, i2, s));
+		final ModaneModel b = factory.createModaneModel();
+		b.setName("b");
+		b.getElements().addAll(Arrays.asList(srv, mod));
+		graph = new ElementDependencyGraph(Arrays.asList(a, b));
+	}
+
+	@Category(GenerationTests.class)
+	@Test
+	public void testNodesAndEdges()
+	{
+		// la structure S, sans dépendance, est un noeud du graphe
+		assertEquals(5, graph.getNbNodes());
+		assertTrue(nodeId(s) >= 0);
+		// les deux implémentations de I1 par Srv forment un seul arc
+		assertEquals(5, graph.getNbEdges());
+	}
+
+	@Category(GenerationTests.class)
+	@Test
+	public void testComponents()
+	{
+		assertEquals(4, graph.getNbComponents());
+		assertEquals(graph.getComponent(nodeId(i1)), graph.getComponent(nodeId(i2)));
+		assertEquals(2, graph.getComponentSize(nodeId(i1)));
+		assertNotEquals(graph.getComponent(nodeId(srv)), graph.getComponent(nodeId(mod)));
+		assertEquals(1, graph.getComponentSize(nodeId(s)));
+	}
+
+	@Category(GenerationTests.class)
+	@Test
+	public void testLayers()
+	{
+		assertEquals(0, graph.getLayer(nodeId(i1)));
+		assertEquals(0, graph.getLayer(nodeId(i2)));
+		assertEquals(0, graph.getLayer(nodeId(s)));
+		assertEquals(1, graph.getLayer(nodeId(srv)));
+		assertEquals(1, graph.getLayer(nodeId(mod)));
+	}
+
+	@Category(GenerationTests.class)
+	@Test
+	public void testFanInFanOut()
+	{
+		assertEquals(3, graph.getFanIn(nodeId(i1)));
+		assertEquals(1, graph.getFanOut(nodeId(i1)));
+		assertEquals(2, graph.getFanIn(nodeId(i2)));
+		assertEquals(1, graph.getFanOut(nodeId(i2)));
+		assertEquals(0, graph.getFanIn(nodeId(srv)));
+		assertEquals(1, graph.getFanOut(nodeId(srv)));
+		assertEquals(2, graph.getFanOut(nodeId(mod)));
+		assertEquals(0, graph.getFanIn(nodeId(s)));
+		assertEquals(0, graph.getFanOut(nodeId(s)));
+	}
+
+	@Category(GenerationTests.class)
+	@Test
+	public void testExport() throws Exception
+	{
+		final StringWriter csv = new StringWriter();
+		graph.export(csv, ExportFormat.Csv);
+		final String[] lines = csv.toString().split("\n");
+		// en-tête et une ligne par noeud
+		assertEquals(6, lines.length);
+		assertTrue(lines[nodeId(s) + 1].startsWith(nodeId(s) + ",Struct,a,"));
+
+		final StringWriter dot = new StringWriter();
+		graph.export(dot, ExportFormat.Dot);
+		assertTrue(dot.toString().contains("n" + nodeId(srv) + " -> n" + nodeId(i1) + " [weight=2];"));
+		assertEquals(ExportFormat.GraphML, ElementDependencyGraph.parseFormat("graphml"));
+	}
+
+	private int nodeId(EObject node)
+	{
+		for (int v = 0; v < graph.getNbNodes(); v++)
+			if (graph.getNode(v) == node) return v;
+		return -1;
+	}
+}
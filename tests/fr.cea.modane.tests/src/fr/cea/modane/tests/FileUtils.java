@@ -1,8 +1,19 @@
 package fr.cea.modane.tests;
 
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
 import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class FileUtils {
  
@@ -23,4 +34,63 @@ public class FileUtils {
         }
         return allFiles;
     }
-}
\ No newline at end of file
+
+    /** Copy of the directory tree from into the directory to */
+    public static void copyDirectory(File from, File to)
+    {
+    	final Path source = from.toPath();
+    	final Path target = to.toPath();
+    	try (Stream<Path> paths = Files.walk(source))
+    	{
+    		for (Path p : paths.collect(Collectors.toList()))
+    		{
+    			final Path copy = target.resolve(source.relativize(p).toString());
+    			if (Files.isDirectory(p)) Files.createDirectories(copy);
+    			else Files.copy(p, copy);
+    		}
+    	}
+    	catch (IOException e)
+    	{
+    		throw new UncheckedIOException(e);
+    	}
+    }
+
+    /** Deletion of the directory tree dir, if it exists */
+    public static void deleteDirectory(File dir)
+    {
+    	if (!dir.exists()) return;
+    	try (Stream<Path> paths = Files.walk(dir.toPath()))
+    	{
+    		for (Path p : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList()))
+    			Files.delete(p);
+    	}
+    	catch (IOException e)
+    	{
+    		throw new UncheckedIOException(e);
+    	}
+    }
+
+    /** Checks that both directory trees contain the same files with the same contents */
+    public static void assertSameFiles(File expected, File actual)
+    {
+    	final TreeSet<String> expectedFiles = relativePaths(expected);
+    	assertEquals(expectedFiles, relativePaths(actual));
+    	try
+    	{
+    		for (String f : expectedFiles)
+    			assertArrayEquals(f, Files.readAllBytes(new File(expected, f).toPath()), Files.readAllBytes(new File(actual, f).toPath()));
+    	}
+    	catch (IOException e)
+    	{
+    		throw new UncheckedIOException(e);
+    	}
+    }
+
+    private static TreeSet<String> relativePaths(File root)
+    {
+    	final TreeSet<String> paths = new TreeSet<String>();
+    	for (File f : listAllFiles(root.getAbsolutePath()))
+    		paths.add(root.toPath().toAbsolutePath().relativize(f.toPath()).toString());
+    	return paths;
+    }
+}
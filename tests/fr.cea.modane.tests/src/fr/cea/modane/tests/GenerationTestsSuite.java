@@ -15,9 +15,9 @@ import org.junit.runners.Suite.SuiteClasses;
 
 @RunWith(Categories.class)
 @Categories.IncludeCategory(GenerationTests.class)
-@SuiteClasses({ AbstractVarTestCase.class, EnumTestCase.class, InheritanceTestCase.class, IWithoutSTestCase.class, MicroHydroTestCase.class, 
-		ParameterTestCase.class, ParameterDefaultValueTestCase.class, PartialGenTestCase.class, PtyOnInterfaceTestCase.class, ServiceTestCase.class, StructTestCase.class,
-		SupportTestCase.class, UnitTestTestCase.class, UnpackagedTestCase.class, VarTestCase.class })
+@SuiteClasses({ AbstractVarTestCase.class, CompactDependencyGraphTestCase.class, CyclesFinderTestCase.class, ElementDependencyGraphTestCase.class, EnumTestCase.class, IncrementalDependencyGraphTestCase.class, IncrementalGenTestCase.class, InheritanceTestCase.class, 
+		IWithoutSTestCase.class, MicroHydroTestCase.class, NewCyclesCheckTestCase.class, ParallelGenTestCase.class, ParameterTestCase.class, ParameterDefaultValueTestCase.class, PartialGenTestCase.class, PtyOnInterfaceTestCase.class,
+		ServiceTestCase.class, StructTestCase.class, SupportTestCase.class, UmlCacheTestCase.class, UnitTestTestCase.class, UnpackagedTestCase.class, VarTestCase.class })
 public class GenerationTestsSuite
 {
 	
@@ -0,0 +1,138 @@
+/*******************************************************************************
+ * Copyright (c) 2022 CEA
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * Contributors: see AUTHORS file
+ *******************************************************************************/
+package fr.cea.modane.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
+import org.eclipse.emf.ecore.xmi.impl.XMIResourceFactoryImpl;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import fr.cea.modane.cycles.IncrementalDependencyGraph;
+import fr.cea.modane.modane.Interface;
+import fr.cea.modane.modane.ModaneFactory;
+import fr.cea.modane.modane.ModaneModel;
+import fr.cea.modane.modane.Service;
+import fr.cea.modane.modaneproject.ModaneProject;
+import fr.cea.modane.modaneproject.ModaneprojectFactory;
+import fr.cea.modane.modaneproject.Package;
+
+/**
+ * Graphe de dépendances entre packages maintenu par les notifications, sur un projet dont
+ * les modèles sont dans des ressources séparées (fragments) :
+ * - a : interface IA ;
+ * - b : interface IB et service SB qui implémente IA, d'où l'arc b -> a.
+ */
+public class IncrementalDependencyGraphTestCase
+{
+	private File dir;
+	private Resource resourceA;
+	private ModaneModel b;
+	private Interface ia;
+	private Interface ib;
+	private Service sb;
+	private IncrementalDependencyGraph graph;
+
+	@Before
+	public void createProject() throws Exception
+	{
+		dir = Files.createTempDirectory("modane-graph").toFile();
+		final ResourceSet resourceSet = new ResourceSetImpl();
+		resourceSet.getResourceFactoryRegistry().getExtensionToFactoryMap().put(Resource.Factory.Registry.DEFAULT_EXTENSION, new XMIResourceFactoryImpl());
+
+		final ModaneFactory factory = ModaneFactory.eINSTANCE;
+		ia = factory.createInterface();
+		ia.setName("IA");
+		ib = factory.createInterface();
+		ib.setName("IB");
+		sb = factory.createService();
+		sb.setName("SB");
+		sb.getInterfaces().add(ia);
+		final ModaneModel a = factory.createModaneModel();
+		a.setName("a");
+		a.getElements().add(ia);
+		b = factory.createModaneModel();
+		b.setName("b");
+		b.getElements().addAll(Arrays.asList(ib, sb));
+
+		final ModaneProject project = ModaneprojectFactory.eINSTANCE.createModaneProject();
+		project.setName("project");
+		final Package pa = ModaneprojectFactory.eINSTANCE.createPackage();
+		pa.setName("a");
+		pa.setModel(a);
+		final Package pb = ModaneprojectFactory.eINSTANCE.createPackage();
+		pb.setName("b");
+		pb.setModel(b);
+		project.getSubPackages().addAll(Arrays.asList(pa, pb));
+
+		resourceSet.createResource(fileURI("project.xmi")).getContents().add(project);
+		resourceA = resourceSet.createResource(fileURI("a.xmi"));
+		resourceA.getContents().add(a);
+		resourceSet.createResource(fileURI("b.xmi")).getContents().add(b);
+		resourceA.save(null);
+
+		graph = IncrementalDependencyGraph.getGraph(project);
+	}
+
+	@After
+	public void deleteFiles()
+	{
+		FileUtils.deleteDirectory(dir);
+	}
+
+	@Category(GenerationTests.class)
+	@Test
+	public void testUpdates() throws Exception
+	{
+		// graphe initial : référence pour findNewCycles
+		assertEquals(1, graph.getNbDependencies("b", "a"));
+		assertEquals(0, graph.getNbDependencies("a", "b"));
+		assertTrue(graph.findNewCycles().isEmpty());
+
+		// modification d'une référence : nouvel arc a -> b qui ferme un cycle
+		ia.getParents().add(ib);
+		assertEquals(1, graph.getNbDependencies("a", "b"));
+		assertEquals(Arrays.asList(Arrays.asList("a", "b", "a")), graph.findNewCycles());
+		assertTrue(graph.findNewCycles().isEmpty());
+
+		// suppression d'un élément : l'arc b -> a disparaît
+		b.getElements().remove(sb);
+		assertEquals(0, graph.getNbDependencies("b", "a"));
+		assertEquals(1, graph.getNbDependencies("a", "b"));
+		assertTrue(graph.findNewCycles().isEmpty());
+
+		// rechargement de la ressource de a, enregistrée sans le parent IB : l'arc a -> b disparaît
+		resourceA.unload();
+		resourceA.load(null);
+		assertEquals(0, graph.getNbDependencies("a", "b"));
+
+		// les objets rechargés sont observés
+		final Interface reloadedIA = (Interface) ((ModaneModel) resourceA.getContents().get(0)).getElements().get(0);
+		reloadedIA.getParents().add(ib);
+		assertEquals(1, graph.getNbDependencies("a", "b"));
+		assertTrue(graph.findNewCycles().isEmpty());
+	}
+
+	private URI fileURI(String name)
+	{
+		return URI.createFileURI(new File(dir, name).getAbsolutePath());
+	}
+}
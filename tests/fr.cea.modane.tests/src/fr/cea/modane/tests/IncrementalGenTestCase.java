@@ -0,0 +1,64 @@
+/*******************************************************************************
+ * Copyright (c) 2022 CEA
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * Contributors: see AUTHORS file
+ *******************************************************************************/
+package fr.cea.modane.tests;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import fr.cea.modane.generator.GenerationManifest;
+
+/**
+ * Incremental generation in a copy of the MicroHydro source directory:
+ * a second generation skips all the elements, a deleted file is generated again
+ * and the result is the same as a full generation.
+ */
+public class IncrementalGenTestCase extends TempDirTestCaseBase
+{
+	private final static String Dir = "MicroHydro";
+
+	@Override
+	public void testGeneration()
+	{
+		File incrementalDir = copySrcDir(Dir);
+		File fullDir = copySrcDir(Dir);
+		generateFromUmlModel(Dir, fullDir, umlToCpp -> {});
+		generateIncrementally(incrementalDir);
+
+		// second generation: nothing to generate
+		List<String> messages = generateIncrementally(incrementalDir);
+		assertTrue(messages.stream().anyMatch(m -> m.startsWith("Element unchanged since last generation: ")));
+		assertFalse(messages.stream().anyMatch(m -> m.startsWith("Generate file: ")));
+
+		// a deleted file is generated again
+		File axlFile = FileUtils.listAllFiles(incrementalDir.getAbsolutePath()).stream().filter(f -> f.getName().endsWith(".axl")).findFirst().get();
+		assertTrue(axlFile.delete());
+		messages = generateIncrementally(incrementalDir);
+		assertTrue(axlFile.exists());
+		assertTrue(messages.stream().anyMatch(m -> m.startsWith("Generate file: ") && m.endsWith(axlFile.getName())));
+
+		assertTrue(new File(incrementalDir, GenerationManifest.FileName).delete());
+		FileUtils.assertSameFiles(fullDir, incrementalDir);
+	}
+
+	private List<String> generateIncrementally(File outputDir)
+	{
+		List<String> messages = new ArrayList<String>();
+		generateFromUmlModel(Dir, outputDir, umlToCpp ->
+		{
+			umlToCpp.setIncremental(true);
+			umlToCpp.getMessageDispatcher().getTraceListeners().add((type, msg) -> messages.add(msg));
+		});
+		return messages;
+	}
+}
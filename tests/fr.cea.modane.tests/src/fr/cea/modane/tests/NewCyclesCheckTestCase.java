@@ -0,0 +1,88 @@
+/*******************************************************************************
+ * Copyright (c) 2022 CEA
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * Contributors: see AUTHORS file
+ *******************************************************************************/
+package fr.cea.modane.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.impl.ResourceImpl;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import fr.cea.modane.modane.Interface;
+import fr.cea.modane.modane.ModaneFactory;
+import fr.cea.modane.modane.ModaneModel;
+import fr.cea.modane.modaneproject.ModaneProject;
+import fr.cea.modane.modaneproject.ModaneprojectFactory;
+import fr.cea.modane.modaneproject.Package;
+import fr.cea.modane.sirius.ui.search.NewCyclesCheck;
+
+/**
+ * Vérification "pas de nouveau cycle" sur les ressources d'une session :
+ * deux projets, seul le second voit apparaître un cycle a -> b -> a.
+ */
+public class NewCyclesCheckTestCase
+{
+	@Category(GenerationTests.class)
+	@Test
+	public void testNewCycles()
+	{
+		final Interface[] first = createInterfaces();
+		final Interface[] second = createInterfaces();
+		final List<Resource> resources = Arrays.asList(createResource("first", first), createResource("second", second));
+		final NewCyclesCheck check = new NewCyclesCheck();
+
+		// ouverture de la session : référence, le cycle initial du premier projet n'est pas signalé
+		first[1].getParents().add(first[0]);
+		first[0].getParents().add(first[1]);
+		second[1].getParents().add(second[0]);
+		assertTrue(check.findNewCycles(resources).isEmpty());
+
+		// sauvegarde : seul le nouveau cycle du second projet est signalé, une seule fois
+		second[0].getParents().add(second[1]);
+		assertEquals(Arrays.asList(Arrays.asList("a", "b", "a")), check.findNewCycles(resources));
+		assertTrue(check.findNewCycles(resources).isEmpty());
+	}
+
+	/** Interfaces IA et IB, dans les modèles a et b */
+	private Interface[] createInterfaces()
+	{
+		final Interface ia = ModaneFactory.eINSTANCE.createInterface();
+		ia.setName("IA");
+		final Interface ib = ModaneFactory.eINSTANCE.createInterface();
+		ib.setName("IB");
+		return new Interface[] { ia, ib };
+	}
+
+	private Resource createResource(String name, Interface[] interfaces)
+	{
+		final ModaneProject project = ModaneprojectFactory.eINSTANCE.createModaneProject();
+		project.setName(name);
+		for (Interface i : interfaces)
+		{
+			final String packageName = i.getName().substring(1).toLowerCase();
+			final ModaneModel model = ModaneFactory.eINSTANCE.createModaneModel();
+			model.setName(packageName);
+			model.getElements().add(i);
+			final Package p = ModaneprojectFactory.eINSTANCE.createPackage();
+			p.setName(packageName);
+			p.setModel(model);
+			project.getSubPackages().add(p);
+		}
+		final Resource resource = new ResourceImpl(URI.createURI(name + ".modaneproject"));
+		resource.getContents().add(project);
+		return resource;
+	}
+}
@@ -0,0 +1,31 @@
+/*******************************************************************************
+ * Copyright (c) 2022 CEA
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * Contributors: see AUTHORS file
+ *******************************************************************************/
+package fr.cea.modane.tests;
+
+import java.io.File;
+
+/**
+ * The generation with several threads must give the same files as the sequential generation.
+ * Both generations are done in copies of the MicroHydro source directory.
+ */
+public class ParallelGenTestCase extends TempDirTestCaseBase
+{
+	private final static String Dir = "MicroHydro";
+
+	@Override
+	public void testGeneration()
+	{
+		File sequentialDir = copySrcDir(Dir);
+		File parallelDir = copySrcDir(Dir);
+		generateFromUmlModel(Dir, sequentialDir, umlToCpp -> umlToCpp.setNbThreads(1));
+		generateFromUmlModel(Dir, parallelDir, umlToCpp -> umlToCpp.setNbThreads(4));
+		FileUtils.assertSameFiles(sequentialDir, parallelDir);
+	}
+}
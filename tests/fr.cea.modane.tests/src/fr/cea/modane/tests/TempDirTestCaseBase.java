@@ -0,0 +1,72 @@
+/*******************************************************************************
+ * Copyright (c) 2022 CEA
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * Contributors: see AUTHORS file
+ *******************************************************************************/
+package fr.cea.modane.tests;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+
+/**
+ * Base of the tests comparing generations done in temporary directories.
+ * The directories are deleted after each test. Nothing is generated in the source directory
+ * of the test, so there is nothing to compile or clean there.
+ */
+public abstract class TempDirTestCaseBase extends TestCaseBase
+{
+	private final List<File> tempDirs = new ArrayList<File>();
+
+	/** Empty temporary directory, deleted after the test */
+	protected File createTempDir(String prefix)
+	{
+		try
+		{
+			File dir = Files.createTempDirectory("modane-" + prefix).toFile();
+			tempDirs.add(dir);
+			return dir;
+		}
+		catch (IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/** Copy of the source directory of the test (user files, modane.properties) in a temporary directory */
+	protected File copySrcDir(String testName)
+	{
+		File dir = createTempDir(testName);
+		FileUtils.copyDirectory(new File(getRelativeSrcDir(testName)), dir);
+		return dir;
+	}
+
+	@After
+	public void deleteTempDirs()
+	{
+		for (File dir : tempDirs)
+			FileUtils.deleteDirectory(dir);
+		tempDirs.clear();
+	}
+
+	@Override
+	public void testCompilation()
+	{
+		// compilation tested by the test of the source directory
+	}
+
+	@Override
+	public void makeFullClean()
+	{
+		// generation in temporary directories
+	}
+}
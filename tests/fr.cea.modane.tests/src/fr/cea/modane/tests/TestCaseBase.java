@@ -18,6 +18,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.List;
+import java.util.function.Consumer;
 
 import org.eclipse.emf.common.util.URI;
 import org.eclipse.uml2.uml.Model;
@@ -116,6 +117,22 @@ public abstract class TestCaseBase
 		System.out.println("End of generation from Modane model for test " + testName + "\n");
 	}
 
+	/**
+	 * Generation from the UML model of the test into outputDir, with an UmlToCpp instance
+	 * set by configuration (threads, incremental mode, cache...).
+	 */
+	protected void generateFromUmlModel(String testName, File outputDir, Consumer<UmlToCpp> configuration)
+	{
+		System.out.println("\nStarting generation from UML model for test " + testName + " in " + outputDir);
+		UmlToCpp umlToCpp = UmlToCpp.createInstance();
+		umlToCpp.getMessageDispatcher().getTraceListeners().add(printConsole);
+		configuration.accept(umlToCpp);
+		Model model = umlToCpp.readModel(getUmlModelFileURI(testName));
+		umlToCpp.generate(model, outputDir.getAbsolutePath(), null, null, false, false);
+		umlToCpp.getMessageDispatcher().getTraceListeners().remove(printConsole);
+		System.out.println("End of generation from UML model for test " + testName + "\n");
+	}
+
 	protected void testGenerationFromUmlModel(String testName)
 	{
 		initGitRepository();
@@ -0,0 +1,51 @@
+/*******************************************************************************
+ * Copyright (c) 2022 CEA
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ * Contributors: see AUTHORS file
+ *******************************************************************************/
+package fr.cea.modane.tests;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The generation from a model read from the UML binary cache must give the same files as
+ * the generation from the XMI model. The first cached generation fills the cache, the second
+ * one reads the model from it. All generations are done in copies of the MicroHydro source directory.
+ */
+public class UmlCacheTestCase extends TempDirTestCaseBase
+{
+	private final static String Dir = "MicroHydro";
+	private final static String FromCacheMessage = ", from cache";
+
+	@Override
+	public void testGeneration()
+	{
+		File cacheDir = createTempDir("uml-cache");
+		File xmiDir = copySrcDir(Dir);
+		File firstCachedDir = copySrcDir(Dir);
+		File secondCachedDir = copySrcDir(Dir);
+		List<String> messages = new ArrayList<>();
+
+		generateFromUmlModel(Dir, xmiDir, umlToCpp -> {});
+		generateFromUmlModel(Dir, firstCachedDir, umlToCpp -> umlToCpp.setUmlCacheDir(cacheDir));
+		assertTrue(cacheDir.list().length > 0);
+		generateFromUmlModel(Dir, secondCachedDir, umlToCpp -> {
+			umlToCpp.setUmlCacheDir(cacheDir);
+			umlToCpp.getMessageDispatcher().getTraceListeners().add((type, msg) -> { messages.add(msg); });
+		});
+		assertTrue(messages.stream().anyMatch(msg -> msg.contains(FromCacheMessage)));
+		assertFalse(messages.stream().anyMatch(msg -> msg.contains("can not be read")));
+
+		FileUtils.assertSameFiles(xmiDir, firstCachedDir);
+		FileUtils.assertSameFiles(xmiDir, secondCachedDir);
+	}
+}